@@ -0,0 +1,111 @@
+package ru.hits.todobackend.benchmarks;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hits.todobackend.TodobackendApplication;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.dto.BatchCreateResultDTO;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.services.TaskService;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Поднимает приложение без веб-сервера поверх in-memory H2 в режиме PostgreSQL,
+ * чтобы бенчмарки ходили через настоящие JPA/Hibernate, а не через моки.
+ */
+final class BenchmarkContexts {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private BenchmarkContexts() {
+    }
+
+    static ConfigurableApplicationContext startWithH2() {
+        return new SpringApplicationBuilder(TodobackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(h2Args().toArray(String[]::new));
+    }
+
+    /**
+     * Полноценный веб-сервер на случайном порту; {@code extraArgs} — дополнительные свойства
+     * в виде {@code --key=value}, {@code sources} — дополнительные конфигурации.
+     */
+    static ConfigurableApplicationContext startWebWithH2(Class<?>[] sources, String... extraArgs) {
+        List<String> args = h2Args();
+        args.add("--server.port=0");
+        args.addAll(List.of(extraArgs));
+        return new SpringApplicationBuilder(TodobackendApplication.class)
+                .sources(sources)
+                .web(WebApplicationType.SERVLET)
+                .run(args.toArray(String[]::new));
+    }
+
+    // аргументами командной строки, чтобы перекрыть PostgreSQL из application.properties
+    private static List<String> h2Args() {
+        return new ArrayList<>(List.of(
+                "--spring.datasource.url=jdbc:h2:mem:benchmark-" + UUID.randomUUID()
+                        + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+                        + ";INIT=CREATE DOMAIN IF NOT EXISTS TIMESTAMPTZ AS TIMESTAMP WITH TIME ZONE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.sql.init.platform=h2",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN"
+        ));
+    }
+
+    static List<UUID> seedTasks(TaskService taskService, int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        List<CreateTaskDTO> batch = new ArrayList<>(TaskService.MAX_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            batch.add(task(i));
+            if (batch.size() == TaskService.MAX_BATCH_SIZE || i == count - 1) {
+                for (BatchCreateResultDTO result : taskService.createTasks(batch)) {
+                    ids.add(result.getTask().getId());
+                }
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Готовые DTO без БД — для бенчмарков сериализации.
+     */
+    static List<TaskDTO> taskDtos(int count) {
+        Status[] statuses = Status.values();
+        OffsetDateTime now = OffsetDateTime.now();
+        List<TaskDTO> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TaskDTO dto = new TaskDTO();
+            dto.setId(UUID.randomUUID());
+            dto.setTitle("Benchmark task #" + i);
+            dto.setDescription("Description of task #" + i);
+            dto.setStatus(statuses[i % statuses.length]);
+            dto.setPriority(PRIORITIES[i % PRIORITIES.length]);
+            dto.setDeadline(now.plusDays(i % 30));
+            dto.setCreatedAt(now.minusDays(i % 30));
+            dto.setUpdatedAt(now);
+            tasks.add(dto);
+        }
+        return tasks;
+    }
+
+    static CreateTaskDTO task(int i) {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Benchmark task #" + i);
+        dto.setDescription("Seeded by BenchmarkContexts");
+        dto.setPriority(PRIORITIES[i % PRIORITIES.length]);
+        dto.setDeadline(OffsetDateTime.now().plusDays(1 + i % 30));
+        return dto;
+    }
+}
@@ -0,0 +1,55 @@
+package ru.hits.todobackend.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.services.TaskService;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConvertToDtoBenchmark {
+
+    private TaskService taskService;
+    private Task task;
+
+    @Setup
+    public void setUp() {
+        // convertToDTO не трогает зависимости сервиса
+        taskService = new TaskService(null, null, null, null, null);
+
+        OffsetDateTime now = OffsetDateTime.now();
+        task = new Task();
+        task.setId(UUID.randomUUID());
+        task.setTitle("Benchmark task");
+        task.setDescription("Description");
+        task.setStatus(Status.ACTIVE);
+        task.setPriority(Priority.HIGH);
+        task.setDeadline(now.plusDays(1));
+        task.setCreatedAt(now);
+        task.setUpdatedAt(now);
+    }
+
+    @Benchmark
+    public TaskDTO convertToDTO() {
+        return taskService.convertToDTO(task);
+    }
+}
@@ -0,0 +1,60 @@
+package ru.hits.todobackend.benchmarks;
+
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.exception.BadRequestException;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Прежняя реализация {@code TaskService.processTitleMacros} на регулярных выражениях,
+ * сохранённая как точка отсчёта для {@link TitleMacroBenchmark}.
+ */
+final class LegacyTitleMacroParser {
+
+    private LegacyTitleMacroParser() {
+    }
+
+    static Object[] parse(String title) {
+        String cleanedTitle = title;
+        Priority macroPriority = null;
+        OffsetDateTime macroDeadline = null;
+
+        if (title != null && title.toLowerCase().contains("<script")) {
+            cleanedTitle = title;
+        }
+
+        Pattern priorityPattern = Pattern.compile("!1|!2|!3|!4");
+        Pattern deadlinePattern = Pattern.compile("!before\\s+(\\d{2}[.-]\\d{2}[.-]\\d{4})");
+
+        Matcher priorityMatcher = priorityPattern.matcher(cleanedTitle);
+        if (priorityMatcher.find()) {
+            switch (priorityMatcher.group()) {
+                case "!1": macroPriority = Priority.CRITICAL; break;
+                case "!2": macroPriority = Priority.HIGH; break;
+                case "!3": macroPriority = Priority.MEDIUM; break;
+                case "!4": macroPriority = Priority.LOW; break;
+            }
+            cleanedTitle = priorityMatcher.replaceFirst("").trim();
+        }
+
+        Matcher deadlineMatcher = deadlinePattern.matcher(cleanedTitle);
+        if (deadlineMatcher.find()) {
+            String dateStr = deadlineMatcher.group(1).replace("-", ".");
+            try {
+                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+                macroDeadline = LocalDate.parse(dateStr, formatter).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+            } catch (DateTimeParseException e) {
+                throw new BadRequestException("Invalid deadline format. Use DD.MM.YYYY");
+            }
+            cleanedTitle = deadlineMatcher.replaceFirst("").trim();
+        }
+
+        return new Object[]{cleanedTitle, macroPriority, macroDeadline};
+    }
+}
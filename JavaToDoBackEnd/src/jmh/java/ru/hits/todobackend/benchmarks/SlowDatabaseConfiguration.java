@@ -0,0 +1,62 @@
+package ru.hits.todobackend.benchmarks;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * Эмуляция медленной БД для нагрузочных сравнений: каждый execute* на JDBC-стейтменте
+ * ждёт {@code benchmark.db-latency-ms} миллисекунд, удерживая соединение, как при настоящем
+ * долгом запросе. In-memory H2 сам по себе отвечает за микросекунды, и без задержки
+ * упор был бы в CPU, а не в потоки.
+ * <p>
+ * Намеренно без {@code @Configuration}: класс подключается явно через
+ * {@link BenchmarkContexts#startWebWithH2}, а не сканированием компонентов.
+ */
+class SlowDatabaseConfiguration {
+
+    @Bean
+    static BeanPostProcessor slowDataSourcePostProcessor(Environment environment) {
+        Duration latency = Duration.ofMillis(environment.getProperty("benchmark.db-latency-ms", Long.class, 0L));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !latency.isZero()) {
+                    return proxy(DataSource.class, dataSource, latency);
+                }
+                return bean;
+            }
+        };
+    }
+
+    private static Object proxy(Class<?> type, Object target, Duration latency) {
+        InvocationHandler handler = (p, method, args) -> {
+            if (Statement.class.isAssignableFrom(type) && method.getName().startsWith("execute")) {
+                Thread.sleep(latency);
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            // оборачиваем по цепочке DataSource -> Connection -> Statement/PreparedStatement
+            if (result instanceof Connection connection && method.getReturnType() == Connection.class) {
+                return proxy(Connection.class, connection, latency);
+            }
+            if (result instanceof Statement statement && Statement.class.isAssignableFrom(method.getReturnType())) {
+                return proxy(method.getReturnType(), statement, latency);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+    }
+}
@@ -0,0 +1,51 @@
+package ru.hits.todobackend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.hits.todobackend.dto.TaskDTO;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация ответа {@code GET /api/tasks}: {@code List<TaskDTO>} в JSON
+ * тем же ObjectMapper, что настраивает Spring MVC.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskJsonBenchmark {
+
+    @Param({"100", "10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<TaskDTO> tasks;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper mapper = Jackson2ObjectMapperBuilder.json().build();
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, TaskDTO.class));
+        tasks = BenchmarkContexts.taskDtos(size);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws Exception {
+        return writer.writeValueAsBytes(tasks);
+    }
+}
@@ -0,0 +1,93 @@
+package ru.hits.todobackend.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.SortDirection;
+import ru.hits.todobackend.entities.enum_entities.SortField;
+import ru.hits.todobackend.services.TaskService;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полные вызовы {@link TaskService} через Spring Data JPA и Hibernate поверх H2.
+ * Throughput и перцентили SampleTime считаются в одном прогоне.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TaskServiceBenchmark {
+
+    @Param({"1000"})
+    public int tasks;
+
+    private ConfigurableApplicationContext context;
+    private TaskService taskService;
+    private List<UUID> ids;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.startWithH2();
+        taskService = context.getBean(TaskService.class);
+        ids = BenchmarkContexts.seedTasks(taskService, tasks);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private UUID randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    @Benchmark
+    public Object getAllTasks() {
+        return taskService.getAllTasks(null, null, null, null, SortField.CREATED_AT, SortDirection.ASC);
+    }
+
+    @Benchmark
+    public Object getAllTasksFilteredByPriority() {
+        return taskService.getAllTasks(null, Priority.HIGH, null, null, SortField.DEADLINE, SortDirection.DESC);
+    }
+
+    @Benchmark
+    public Object getTasksFirstPage() {
+        return taskService.getTasksPage(null, null, null, null, SortField.CREATED_AT, SortDirection.ASC, 50, null);
+    }
+
+    @Benchmark
+    public Object getTaskById() {
+        return taskService.getTaskById(randomId());
+    }
+
+    @Benchmark
+    public Object createTask() {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("!2 !before 01.12.2030 Created by benchmark");
+        return taskService.createTask(dto);
+    }
+
+    @Benchmark
+    public void toggleTask() {
+        taskService.toggleTask(randomId());
+    }
+}
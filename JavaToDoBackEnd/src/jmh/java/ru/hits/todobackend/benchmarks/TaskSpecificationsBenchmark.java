@@ -0,0 +1,84 @@
+package ru.hits.todobackend.benchmarks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.jpa.domain.Specification;
+import ru.hits.todobackend.Specification.TaskSpecifications;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение Criteria-предикатов из {@link TaskSpecifications}, как это делает
+ * {@code TaskService.getAllTasks}, без выполнения запроса.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TaskSpecificationsBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private EntityManager entityManager;
+    private CriteriaBuilder cb;
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContexts.startWithH2();
+        entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+        cb = entityManager.getCriteriaBuilder();
+        from = OffsetDateTime.now();
+        to = from.plusDays(7);
+    }
+
+    @TearDown
+    public void tearDown() {
+        entityManager.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Predicate noFilters() {
+        return build(Specification
+                .where(TaskSpecifications.hasStatus(null))
+                .and(TaskSpecifications.hasPriority(null))
+                .and(TaskSpecifications.deadlineBetween(null, null)));
+    }
+
+    @Benchmark
+    public Predicate allFilters() {
+        return build(Specification
+                .where(TaskSpecifications.hasStatus(Status.ACTIVE))
+                .and(TaskSpecifications.hasPriority(Priority.HIGH))
+                .and(TaskSpecifications.deadlineBetween(from, to)));
+    }
+
+    private Predicate build(Specification<Task> spec) {
+        CriteriaQuery<Task> query = cb.createQuery(Task.class);
+        Root<Task> root = query.from(Task.class);
+        return spec.toPredicate(root, query, cb);
+    }
+}
@@ -0,0 +1,48 @@
+package ru.hits.todobackend.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.hits.todobackend.services.TitleMacroParser;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Разбор макросов заголовка: прежняя версия на regex против однопроходного парсера.
+ * Аллокации на операцию — с профайлером GC:
+ * {@code mvn -P benchmark test-compile exec:exec -Djmh.args="TitleMacro -prof gc"}
+ * (смотреть {@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TitleMacroBenchmark {
+
+    @Param({
+            "Buy milk and bread",
+            "!2 Prepare the quarterly report",
+            "!before 01.12.2030 Finish this",
+            "!1 !before 31-12-2030 Combo title with both macros"
+    })
+    public String title;
+
+    @Benchmark
+    public Object legacyRegex() {
+        return LegacyTitleMacroParser.parse(title);
+    }
+
+    @Benchmark
+    public Object singlePass() {
+        return TitleMacroParser.parse(title);
+    }
+}
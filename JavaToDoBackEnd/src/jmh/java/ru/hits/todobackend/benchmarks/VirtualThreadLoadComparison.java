@@ -0,0 +1,142 @@
+package ru.hits.todobackend.benchmarks;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hits.todobackend.services.TaskService;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнение обработки запросов на платформенных и виртуальных потоках под одинаковой нагрузкой.
+ * <p>
+ * Для каждого режима поднимается приложение на случайном порту поверх H2 с искусственной
+ * задержкой каждого SQL ({@link SlowDatabaseConfiguration}), и {@code concurrency} клиентов
+ * по замкнутому циклу дёргают {@code GET /api/tasks?limit=20} — запрос, который всегда идёт в БД.
+ * Пул соединений равен числу клиентов, чтобы упор был в потоки сервера, а не в пул.
+ * На платформенных потоках параллелизм ограничен {@code server.tomcat.threads.max} (200),
+ * на виртуальных — только пулом соединений.
+ * <p>
+ * Аргументы: {@code [concurrency=800] [seconds=20] [dbLatencyMs=500]}, запуск:
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec \
+ *     -Dbenchmark.main=ru.hits.todobackend.benchmarks.VirtualThreadLoadComparison -Djmh.args="800 20 500"
+ * </pre>
+ */
+public final class VirtualThreadLoadComparison {
+
+    private static final int SEED_TASKS = 1_000;
+    private static final Duration WARMUP = Duration.ofSeconds(5);
+
+    private VirtualThreadLoadComparison() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int concurrency = args.length > 0 ? Integer.parseInt(args[0]) : 800;
+        Duration duration = Duration.ofSeconds(args.length > 1 ? Long.parseLong(args[1]) : 20);
+        long dbLatencyMs = args.length > 2 ? Long.parseLong(args[2]) : 500;
+
+        List<String> report = new ArrayList<>();
+        report.add(String.format("%-10s %10s %10s %10s %10s %8s",
+                "mode", "req/s", "p50, ms", "p99, ms", "max, ms", "errors"));
+        for (boolean virtual : new boolean[]{false, true}) {
+            Result result = run(virtual, concurrency, duration, dbLatencyMs);
+            report.add(String.format("%-10s %10.1f %10.1f %10.1f %10.1f %8d",
+                    virtual ? "virtual" : "platform", result.throughput(),
+                    result.percentile(0.50), result.percentile(0.99), result.percentile(1.0), result.errors()));
+        }
+
+        System.out.printf("%nconcurrency=%d, duration=%ds, db latency=%dms%n",
+                concurrency, duration.toSeconds(), dbLatencyMs);
+        report.forEach(System.out::println);
+    }
+
+    private static Result run(boolean virtual, int concurrency, Duration duration, long dbLatencyMs)
+            throws InterruptedException {
+        try (ConfigurableApplicationContext context = BenchmarkContexts.startWebWithH2(
+                new Class<?>[]{SlowDatabaseConfiguration.class},
+                "--spring.profiles.active=" + (virtual ? "virtual-threads" : "default"),
+                "--benchmark.db-latency-ms=" + dbLatencyMs,
+                "--spring.datasource.hikari.maximum-pool-size=" + concurrency,
+                "--server.tomcat.max-connections=" + (concurrency * 2))) {
+
+            BenchmarkContexts.seedTasks(context.getBean(TaskService.class), SEED_TASKS);
+            URI uri = URI.create("http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/tasks?limit=20");
+
+            drive(uri, concurrency, WARMUP);
+            return drive(uri, concurrency, duration);
+        }
+    }
+
+    /**
+     * Замкнутая модель: каждый из {@code concurrency} клиентов отправляет следующий запрос сразу
+     * после ответа на предыдущий. Клиенты — виртуальные потоки, чтобы сам генератор нагрузки
+     * не упирался в потоки ни в одном из режимов.
+     */
+    private static Result drive(URI uri, int concurrency, Duration duration) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        long deadline = System.nanoTime() + duration.toNanos();
+        long[][] latencies = new long[concurrency][];
+        AtomicLong errors = new AtomicLong();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < concurrency; c++) {
+                int slot = c;
+                clients.submit(() -> {
+                    long[] own = new long[1024];
+                    int n = 0;
+                    while (System.nanoTime() < deadline) {
+                        long start = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                                continue;
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                            continue;
+                        }
+                        if (n == own.length) {
+                            own = Arrays.copyOf(own, n * 2);
+                        }
+                        own[n++] = System.nanoTime() - start;
+                    }
+                    latencies[slot] = Arrays.copyOf(own, n);
+                });
+            }
+        }
+        client.close();
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(all, errors.get(), duration);
+    }
+
+    private record Result(long[] sortedLatencies, long errors, Duration duration) {
+
+        double throughput() {
+            return sortedLatencies.length / (duration.toMillis() / 1000.0);
+        }
+
+        double percentile(double p) {
+            if (sortedLatencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(p * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+        }
+    }
+}
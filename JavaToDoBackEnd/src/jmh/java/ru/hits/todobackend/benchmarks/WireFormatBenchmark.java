@@ -0,0 +1,77 @@
+package ru.hits.todobackend.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.hits.todobackend.config.WireFormatConfiguration;
+import ru.hits.todobackend.dto.TaskDTO;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Форматы ответа {@code GET /api/tasks} на 10 000 задач: время кодирования и объём на проводе.
+ * JSON_GZIP — то, что отдаёт Tomcat при {@code server.compression.enabled} (уровень сжатия по умолчанию),
+ * CBOR и SMILE — те же mapper'ы, что в {@link WireFormatConfiguration}.
+ * Размер одного ответа в байтах печатается в начале прогона каждого формата.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WireFormatBenchmark {
+
+    public enum Format {
+        JSON, JSON_GZIP, CBOR, SMILE
+    }
+
+    @Param({"JSON", "JSON_GZIP", "CBOR", "SMILE"})
+    public Format format;
+
+    @Param({"10000"})
+    public int size;
+
+    private ObjectWriter writer;
+    private List<TaskDTO> tasks;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper mapper = switch (format) {
+            case JSON, JSON_GZIP -> Jackson2ObjectMapperBuilder.json().build();
+            case CBOR -> WireFormatConfiguration.compact(Jackson2ObjectMapperBuilder.cbor());
+            case SMILE -> WireFormatConfiguration.compact(Jackson2ObjectMapperBuilder.smile());
+        };
+        writer = mapper.writerFor(mapper.getTypeFactory().constructCollectionType(List.class, TaskDTO.class));
+        tasks = BenchmarkContexts.taskDtos(size);
+        System.out.printf("%n%s: %d bytes for %d tasks%n", format, encode().length, size);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        if (format != Format.JSON_GZIP) {
+            return writer.writeValueAsBytes(tasks);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            writer.writeValue(gzip, tasks);
+        }
+        return bytes.toByteArray();
+    }
+}
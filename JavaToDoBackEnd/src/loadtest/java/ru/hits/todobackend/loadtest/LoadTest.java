@@ -0,0 +1,253 @@
+package ru.hits.todobackend.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.hits.todobackend.TodobackendApplication;
+import ru.hits.todobackend.dto.BatchCreateResultDTO;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.services.TaskService;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Нагрузочный прогон {@code TaskController} по HTTP: приложение на случайном порту поверх
+ * in-memory H2, смесь запросов из {@link TrafficMix}, бюджет из {@link SloBudget}.
+ * <p>
+ * Модель открытая: запросы приходят пуассоновским потоком с частотой {@code rate} независимо от того,
+ * успевает ли сервер, и задержка считается от запланированного момента отправки, а не от фактического.
+ * Поэтому очередь на сервере видна в перцентилях, а не прячется за замедлившимся генератором,
+ * как в замкнутой модели (coordinated omission). Каждый запрос отправляется из своего виртуального потока.
+ * <p>
+ * Результат — таблица p50/p99/p99.9 по эндпоинтам, распределения в {@code target/load-test/*.hgrm}
+ * (формат HdrHistogram, открываются HistogramLogAnalyzer'ом или plotFiles.html) и код выхода 1,
+ * если бюджет нарушен. Параметры — аргументами {@code key=value}, по умолчанию — {@link #DEFAULTS}:
+ * <pre>
+ * mvn -P load-test test-compile exec:exec -Dloadtest.args="rate=400 duration=60s slo.get.p99=15"
+ * </pre>
+ */
+public final class LoadTest {
+
+    static final Map<String, String> DEFAULTS = new LinkedHashMap<>();
+
+    static {
+        DEFAULTS.put("rate", "100");
+        DEFAULTS.put("duration", "30s");
+        DEFAULTS.put("warmup", "10s");
+        DEFAULTS.put("seed", "42");
+        DEFAULTS.put("tasks", "2000");
+        // бюджеты для H2 в одном процессе с генератором; для стенда переопределяются аргументами
+        DEFAULTS.put("slo.list.p99", "100");
+        DEFAULTS.put("slo.list.p99.9", "250");
+        DEFAULTS.put("slo.get.p99", "50");
+        DEFAULTS.put("slo.get.p99.9", "150");
+        DEFAULTS.put("slo.toggle.p99", "75");
+        DEFAULTS.put("slo.toggle.p99.9", "200");
+        DEFAULTS.put("slo.create.p99", "75");
+        DEFAULTS.put("slo.create.p99.9", "200");
+        DEFAULTS.put("slo.delete.p99", "75");
+        DEFAULTS.put("slo.delete.p99.9", "200");
+        DEFAULTS.put("slo.errors", "0.001");
+    }
+
+    private static final Path REPORT_DIR = Path.of("target", "load-test");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> settings = new LinkedHashMap<>(DEFAULTS);
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Expected key=value, got " + arg);
+            }
+            settings.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        double rate = Double.parseDouble(settings.get("rate"));
+        Duration duration = DurationStyle.detectAndParse(settings.get("duration"));
+        Duration warmup = DurationStyle.detectAndParse(settings.get("warmup"));
+        long seed = Long.parseLong(settings.get("seed"));
+        int tasks = Integer.parseInt(settings.get("tasks"));
+
+        List<String> breaches;
+        try (ConfigurableApplicationContext context = startWithH2()) {
+            List<UUID> readable = seedTasks(context.getBean(TaskService.class), tasks);
+            // запас под удаления с полуторным запасом: смесь выбирает DELETE случайно
+            int deletes = (int) Math.ceil(rate * (duration.toSeconds() + warmup.toSeconds())
+                    * TrafficMix.Endpoint.DELETE.weight / 100 * 1.5);
+            List<UUID> deletable = seedTasks(context.getBean(TaskService.class), deletes);
+
+            String baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+                    + "/api/tasks";
+            TrafficMix mix = new TrafficMix(baseUrl, seed, readable, deletable);
+            try (HttpClient client = HttpClient.newBuilder()
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .executor(Executors.newVirtualThreadPerTaskExecutor())
+                    .build()) {
+                drive(client, mix, rate, warmup);
+                Map<TrafficMix.Endpoint, EndpointStats> stats = drive(client, mix, rate, duration);
+                breaches = report(stats, duration, new SloBudget(settings));
+            }
+        }
+
+        System.out.printf("%nrate=%s/s, duration=%s, warmup=%s, seed=%d, tasks=%d%n",
+                settings.get("rate"), duration, warmup, seed, tasks);
+        if (!breaches.isEmpty()) {
+            System.out.println("SLO budget exceeded:");
+            breaches.forEach(breach -> System.out.println("  " + breach));
+            System.exit(1);
+        }
+        System.out.println("SLO budget met");
+        System.exit(0);
+    }
+
+    private static Map<TrafficMix.Endpoint, EndpointStats> drive(HttpClient client, TrafficMix mix,
+                                                                 double rate, Duration duration) {
+        Map<TrafficMix.Endpoint, EndpointStats> stats = new EnumMap<>(TrafficMix.Endpoint.class);
+        for (TrafficMix.Endpoint endpoint : TrafficMix.Endpoint.values()) {
+            stats.put(endpoint, new EndpointStats());
+        }
+
+        long intended = System.nanoTime();
+        long end = intended + duration.toNanos();
+        try (ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor()) {
+            while (true) {
+                intended += (long) (mix.nextInterArrivalSeconds(rate) * 1_000_000_000L);
+                if (intended >= end) {
+                    break;
+                }
+                TrafficMix.Call call = mix.next();
+                parkUntil(intended);
+                long scheduledAt = intended;
+                senders.submit(() -> {
+                    EndpointStats endpointStats = stats.get(call.endpoint());
+                    try {
+                        HttpResponse<String> response = client.send(call.request(), HttpResponse.BodyHandlers.ofString());
+                        endpointStats.record(scheduledAt, response.statusCode() / 100 == 2);
+                        mix.onResponse(call.endpoint(), response);
+                    } catch (IOException e) {
+                        endpointStats.record(scheduledAt, false);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                });
+            }
+        }
+        return stats;
+    }
+
+    private static void parkUntil(long nanoTime) {
+        long wait;
+        while ((wait = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(wait);
+        }
+    }
+
+    private static List<String> report(Map<TrafficMix.Endpoint, EndpointStats> stats, Duration duration,
+                                       SloBudget budget) throws IOException {
+        Files.createDirectories(REPORT_DIR);
+        List<String> breaches = new ArrayList<>();
+        long total = 0;
+        long errors = 0;
+
+        System.out.printf("%n%-8s %9s %8s %8s %10s %10s %10s %10s%n",
+                "endpoint", "requests", "req/s", "errors", "p50, ms", "p99, ms", "p99.9, ms", "max, ms");
+        for (Map.Entry<TrafficMix.Endpoint, EndpointStats> entry : stats.entrySet()) {
+            TrafficMix.Endpoint endpoint = entry.getKey();
+            Histogram latencies = entry.getValue().latencies;
+            long count = latencies.getTotalCount();
+            long failed = entry.getValue().errors.sum();
+            System.out.printf("%-8s %9d %8.1f %8d %10.2f %10.2f %10.2f %10.2f%n",
+                    endpoint.label(), count, count / (duration.toMillis() / 1000.0), failed,
+                    latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+                    latencies.getValueAtPercentile(99.9) / 1000.0, latencies.getMaxValue() / 1000.0);
+
+            try (PrintStream out = new PrintStream(REPORT_DIR.resolve(endpoint.label() + ".hgrm").toFile())) {
+                // значения в микросекундах, в файле — в миллисекундах
+                latencies.outputPercentileDistribution(out, 1000.0);
+            }
+            breaches.addAll(budget.check(endpoint, latencies));
+            total += count;
+            errors += failed;
+        }
+        breaches.addAll(budget.checkErrors(errors, total));
+        return breaches;
+    }
+
+    // аргументами командной строки, чтобы перекрыть PostgreSQL из application.properties
+    private static ConfigurableApplicationContext startWithH2() {
+        return new SpringApplicationBuilder(TodobackendApplication.class)
+                .web(WebApplicationType.SERVLET)
+                .run("--server.port=0",
+                        "--spring.datasource.url=jdbc:h2:mem:load-test-" + UUID.randomUUID()
+                                + ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+                                + ";INIT=CREATE DOMAIN IF NOT EXISTS TIMESTAMPTZ AS TIMESTAMP WITH TIME ZONE",
+                        "--spring.datasource.driver-class-name=org.h2.Driver",
+                        "--spring.datasource.username=sa",
+                        "--spring.jpa.hibernate.ddl-auto=create",
+                        "--spring.sql.init.platform=h2",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+    }
+
+    private static List<UUID> seedTasks(TaskService taskService, int count) {
+        Priority[] priorities = Priority.values();
+        List<UUID> ids = new ArrayList<>(count);
+        List<CreateTaskDTO> batch = new ArrayList<>(TaskService.MAX_BATCH_SIZE);
+        for (int i = 0; i < count; i++) {
+            CreateTaskDTO dto = new CreateTaskDTO();
+            dto.setTitle("Seeded task #" + i);
+            dto.setDescription("Seeded by the load test");
+            dto.setPriority(priorities[i % priorities.length]);
+            dto.setDeadline(OffsetDateTime.now().plusDays(1 + i % 30));
+            batch.add(dto);
+            if (batch.size() == TaskService.MAX_BATCH_SIZE || i == count - 1) {
+                for (BatchCreateResultDTO result : taskService.createTasks(batch)) {
+                    ids.add(result.getTask().getId());
+                }
+                batch.clear();
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Задержки в микросекундах от запланированного момента отправки; ошибки в гистограмму не идут.
+     */
+    private static final class EndpointStats {
+
+        final Histogram latencies = new ConcurrentHistogram(3);
+        final LongAdder errors = new LongAdder();
+
+        void record(long scheduledAt, boolean ok) {
+            if (ok) {
+                latencies.recordValue((System.nanoTime() - scheduledAt) / 1_000);
+            } else {
+                errors.increment();
+            }
+        }
+    }
+}
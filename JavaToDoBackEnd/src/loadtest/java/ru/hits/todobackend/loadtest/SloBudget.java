@@ -0,0 +1,55 @@
+package ru.hits.todobackend.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Бюджет задержек: ключи {@code slo.<эндпоинт>.<p50|p99|p99.9>} в миллисекундах и
+ * {@code slo.errors} — допустимая доля ошибок по всем эндпоинтам. Перцентиль без ключа не проверяется.
+ */
+final class SloBudget {
+
+    static final Map<String, Double> PERCENTILES = new LinkedHashMap<>();
+
+    static {
+        PERCENTILES.put("p50", 50.0);
+        PERCENTILES.put("p99", 99.0);
+        PERCENTILES.put("p99.9", 99.9);
+    }
+
+    private final Map<String, String> settings;
+
+    SloBudget(Map<String, String> settings) {
+        this.settings = settings;
+    }
+
+    /**
+     * Нарушения бюджета по одному эндпоинту, по строке на нарушение.
+     */
+    List<String> check(TrafficMix.Endpoint endpoint, Histogram latenciesMicros) {
+        List<String> breaches = new ArrayList<>();
+        PERCENTILES.forEach((name, percentile) -> {
+            String budget = settings.get("slo." + endpoint.label() + "." + name);
+            if (budget == null || latenciesMicros.getTotalCount() == 0) {
+                return;
+            }
+            double actualMs = latenciesMicros.getValueAtPercentile(percentile) / 1000.0;
+            if (actualMs > Double.parseDouble(budget)) {
+                breaches.add(String.format("%s %s = %.1f ms > %s ms", endpoint.label(), name, actualMs, budget));
+            }
+        });
+        return breaches;
+    }
+
+    List<String> checkErrors(long errors, long total) {
+        double allowed = Double.parseDouble(settings.getOrDefault("slo.errors", "0"));
+        double actual = total == 0 ? 0 : (double) errors / total;
+        return actual > allowed
+                ? List.of(String.format("errors = %d of %d (%.3f%%) > %.3f%%", errors, total, actual * 100, allowed * 100))
+                : List.of();
+    }
+}
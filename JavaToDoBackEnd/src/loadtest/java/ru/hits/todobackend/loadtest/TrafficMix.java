@@ -0,0 +1,164 @@
+package ru.hits.todobackend.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Смесь запросов, повторяющая наш трафик: в основном чтения (список с фильтрами и задача по id),
+ * меньше — переключение статуса, создание с макросами в заголовке и удаление.
+ * <p>
+ * Все случайные решения (эндпоинт, фильтры, id, заголовок) принимает один поток генератора
+ * с заданным seed, поэтому последовательность запросов от прогона к прогону одна и та же.
+ * Удаляются только задачи, отложенные для этого при заполнении БД или созданные самим прогоном, —
+ * задачи для чтения и переключения живут до конца.
+ */
+final class TrafficMix {
+
+    enum Endpoint {
+        LIST(40),
+        GET(30),
+        TOGGLE(10),
+        CREATE(15),
+        DELETE(5);
+
+        final int weight;
+
+        Endpoint(int weight) {
+            this.weight = weight;
+        }
+
+        String label() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    record Call(Endpoint endpoint, HttpRequest request) {
+    }
+
+    private static final Endpoint[] ENDPOINTS = Endpoint.values();
+    private static final int TOTAL_WEIGHT = 100;
+    private static final String[] STATUSES = {"ACTIVE", "COMPLETED", null};
+    private static final String[] PRIORITIES = {"CRITICAL", "HIGH", "MEDIUM", "LOW", null};
+    private static final String[] SORTS = {"DEADLINE", "CREATED_AT", "PRIORITY"};
+    private static final DateTimeFormatter MACRO_DATE = DateTimeFormatter.ofPattern("dd.MM.yyyy");
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final String baseUrl;
+    private final Random random;
+    private final List<UUID> readable;
+    private final Queue<UUID> deletable;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private long created;
+
+    TrafficMix(String baseUrl, long seed, List<UUID> readable, List<UUID> deletable) {
+        this.baseUrl = baseUrl;
+        this.random = new Random(seed);
+        this.readable = List.copyOf(readable);
+        this.deletable = new ConcurrentLinkedQueue<>(deletable);
+    }
+
+    double nextInterArrivalSeconds(double rate) {
+        // пуассоновский поток: интервалы распределены экспоненциально
+        return -Math.log(1 - random.nextDouble()) / rate;
+    }
+
+    Call next() {
+        int roll = random.nextInt(TOTAL_WEIGHT);
+        Endpoint endpoint = ENDPOINTS[ENDPOINTS.length - 1];
+        for (Endpoint candidate : ENDPOINTS) {
+            if (roll < candidate.weight) {
+                endpoint = candidate;
+                break;
+            }
+            roll -= candidate.weight;
+        }
+        if (endpoint == Endpoint.DELETE && deletable.isEmpty()) {
+            // запас на удаление кончился — вместо удаления создаём, чтобы не слать заведомые 404
+            endpoint = Endpoint.CREATE;
+        }
+        return new Call(endpoint, request(endpoint));
+    }
+
+    /**
+     * Запоминает id созданной задачи как кандидата на удаление.
+     */
+    void onResponse(Endpoint endpoint, HttpResponse<String> response) {
+        if (endpoint != Endpoint.CREATE || response.statusCode() != 201) {
+            return;
+        }
+        try {
+            JsonNode id = objectMapper.readTree(response.body()).get("id");
+            if (id != null) {
+                deletable.add(UUID.fromString(id.asText()));
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            // тело не разобрали — задача просто не попадёт в кандидаты на удаление
+        }
+    }
+
+    private HttpRequest request(Endpoint endpoint) {
+        return switch (endpoint) {
+            case LIST -> get(baseUrl + listQuery());
+            case GET -> get(baseUrl + "/" + anyReadable());
+            case TOGGLE -> builder(baseUrl + "/" + anyReadable() + "/toggle")
+                    .method("PATCH", HttpRequest.BodyPublishers.noBody())
+                    .build();
+            case CREATE -> builder(baseUrl)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(createBody()))
+                    .build();
+            case DELETE -> builder(baseUrl + "/" + deletable.poll() + "/delete").DELETE().build();
+        };
+    }
+
+    private String listQuery() {
+        StringBuilder query = new StringBuilder("?limit=20&sortBy=").append(SORTS[random.nextInt(SORTS.length)]);
+        String status = STATUSES[random.nextInt(STATUSES.length)];
+        if (status != null) {
+            query.append("&status=").append(status);
+        }
+        String priority = PRIORITIES[random.nextInt(PRIORITIES.length)];
+        if (priority != null) {
+            query.append("&priority=").append(priority);
+        }
+        return query.toString();
+    }
+
+    private String createBody() {
+        StringBuilder title = new StringBuilder("Load task #").append(++created);
+        // половина заголовков с макросами приоритета и срока, как их набирают в клиенте
+        if (random.nextBoolean()) {
+            title.append(" !").append(1 + random.nextInt(4));
+        }
+        if (random.nextBoolean()) {
+            title.append(" !before ").append(LocalDate.now().plusDays(1 + random.nextInt(60)).format(MACRO_DATE));
+        }
+        return "{\"title\":\"" + title + "\",\"description\":\"Created by the load test\"}";
+    }
+
+    private UUID anyReadable() {
+        return readable.get(random.nextInt(readable.size()));
+    }
+
+    private HttpRequest get(String uri) {
+        return builder(uri).GET().build();
+    }
+
+    private HttpRequest.Builder builder(String uri) {
+        return HttpRequest.newBuilder(URI.create(uri)).timeout(TIMEOUT);
+    }
+}
@@ -0,0 +1,64 @@
+package ru.hits.todobackend.Specification;
+
+import lombok.Getter;
+import ru.hits.todobackend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Курсор выдачи поиска по релевантности: ранг последней выданной задачи и её id.
+ * Ранг зависит от запроса, поэтому курсор помнит хэш {@code q} и с другим запросом не принимается.
+ */
+@Getter
+public class SearchCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String queryHash;
+    private final float rank;
+    private final UUID id;
+
+    private SearchCursor(String queryHash, float rank, UUID id) {
+        this.queryHash = queryHash;
+        this.rank = rank;
+        this.id = id;
+    }
+
+    public static SearchCursor after(String q, float rank, UUID id) {
+        return new SearchCursor(hash(q), rank, id);
+    }
+
+    public String encode() {
+        String raw = queryHash + SEPARATOR + rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SearchCursor decode(String token, String q) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 3)
+                throw new BadRequestException("Invalid cursor");
+            if (!parts[0].equals(hash(q)))
+                throw new BadRequestException("Cursor does not match q");
+            return new SearchCursor(parts[0], Float.parseFloat(parts[1]), UUID.fromString(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Задача с рангом {@code rank} и id {@code id} идёт в выдаче после курсора:
+     * ранг по убыванию, при равном ранге — id по возрастанию.
+     */
+    public boolean isBefore(float rank, UUID id) {
+        int byRank = Float.compare(this.rank, rank);
+        return byRank > 0 || byRank == 0 && this.id.compareTo(id) < 0;
+    }
+
+    private static String hash(String q) {
+        return Integer.toHexString(q.hashCode());
+    }
+}
@@ -0,0 +1,105 @@
+package ru.hits.todobackend.Specification;
+
+import lombok.Getter;
+import ru.hits.todobackend.entities.enum_entities.SortDirection;
+import ru.hits.todobackend.entities.enum_entities.SortField;
+import ru.hits.todobackend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Непрозрачный токен дельта-синхронизации {@code GET /api/tasks/changes}: две keyset-позиции —
+ * по задачам ({@code update_date, id}) и по журналу удалений ({@code deleted_at, task_id}) —
+ * плюс {@code floor}, водяной знак, к которому обе позиции вернутся в конце сеанса.
+ * <p>
+ * Сеанс — цепочка запросов, пока {@code hasMore}. Внутри сеанса позиции точные, а в конце
+ * откатываются к {@code floor} (время начала сеанса минус запас): транзакция, начатая раньше,
+ * но закоммиченная позже, могла записать {@code update_date} меньше уже выданной позиции,
+ * и без отката её изменение потерялось бы. Такие строки придут повторно, клиент применяет их идемпотентно.
+ */
+@Getter
+public class SyncToken {
+
+    private static final String SEPARATOR = "|";
+    private static final UUID NONE = new UUID(0, 0);
+
+    private final OffsetDateTime floor;
+    private final OffsetDateTime tasksAfter;
+    private final UUID tasksAfterId;
+    private final OffsetDateTime deletionsAfter;
+    private final UUID deletionsAfterId;
+
+    private SyncToken(OffsetDateTime floor, OffsetDateTime tasksAfter, UUID tasksAfterId,
+                      OffsetDateTime deletionsAfter, UUID deletionsAfterId) {
+        this.floor = floor;
+        this.tasksAfter = tasksAfter;
+        this.tasksAfterId = tasksAfterId;
+        this.deletionsAfter = deletionsAfter;
+        this.deletionsAfterId = deletionsAfterId;
+    }
+
+    /**
+     * Первая синхронизация: задачи с самого начала, удаления — только с начала сеанса,
+     * чтобы клиент узнал о задачах, удалённых, пока он листает страницы.
+     */
+    public static SyncToken initial(OffsetDateTime tasksFrom, OffsetDateTime floor) {
+        return new SyncToken(floor, tasksFrom, NONE, floor, NONE);
+    }
+
+    /**
+     * Токен между сеансами: обе позиции стоят на водяном знаке.
+     */
+    public boolean isBetweenSessions() {
+        return tasksAfterId.equals(NONE) && deletionsAfterId.equals(NONE);
+    }
+
+    public SyncToken startSession(OffsetDateTime floor) {
+        return new SyncToken(floor, tasksAfter, tasksAfterId, deletionsAfter, deletionsAfterId);
+    }
+
+    public SyncToken finishSession() {
+        return new SyncToken(floor, floor, NONE, floor, NONE);
+    }
+
+    public SyncToken withTasksAfter(OffsetDateTime updatedAt, UUID id) {
+        return new SyncToken(floor, updatedAt, id, deletionsAfter, deletionsAfterId);
+    }
+
+    public SyncToken withDeletionsAfter(OffsetDateTime deletedAt, UUID taskId) {
+        return new SyncToken(floor, tasksAfter, tasksAfterId, deletedAt, taskId);
+    }
+
+    /**
+     * Позиция по задачам в виде курсора keyset-пагинации по {@code updatedAt}.
+     * Нулевой UUID меньше любого настоящего, поэтому на водяном знаке строки с ровно
+     * этим {@code update_date} тоже попадают в выборку.
+     */
+    public TaskCursor tasksCursor() {
+        return TaskCursor.of(SortField.UPDATED_AT, SortDirection.ASC, tasksAfter, tasksAfterId);
+    }
+
+    public String encode() {
+        String raw = floor + SEPARATOR + tasksAfter + SEPARATOR + tasksAfterId + SEPARATOR
+                + deletionsAfter + SEPARATOR + deletionsAfterId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SyncToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\" + SEPARATOR);
+            if (parts.length != 5)
+                throw new BadRequestException("Invalid sync token");
+
+            return new SyncToken(OffsetDateTime.parse(parts[0]),
+                    OffsetDateTime.parse(parts[1]), UUID.fromString(parts[2]),
+                    OffsetDateTime.parse(parts[3]), UUID.fromString(parts[4]));
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Invalid sync token");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package ru.hits.todobackend.Specification;
+
+import lombok.Getter;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.SortDirection;
+import ru.hits.todobackend.entities.enum_entities.SortField;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: значение активного поля сортировки
+ * последней выданной задачи плюс её id как tiebreaker.
+ */
+@Getter
+public class TaskCursor {
+
+    private static final String SEPARATOR = "|";
+    private static final String NULL_MARKER = "N";
+    private static final String VALUE_MARKER = "V";
+
+    private final SortField sortField;
+    private final SortDirection direction;
+    private final Comparable<?> value;
+    private final UUID id;
+
+    private TaskCursor(SortField sortField, SortDirection direction, Comparable<?> value, UUID id) {
+        this.sortField = sortField;
+        this.direction = direction;
+        this.value = value;
+        this.id = id;
+    }
+
+    public static TaskCursor after(TaskDTO task, SortField sortField, SortDirection direction) {
+        return new TaskCursor(sortField, direction, sortValue(task, sortField), task.getId());
+    }
+
+    static TaskCursor of(SortField sortField, SortDirection direction, Comparable<?> value, UUID id) {
+        return new TaskCursor(sortField, direction, value, id);
+    }
+
+    public String encode() {
+        String raw = sortField.name() + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR
+                + (value == null ? NULL_MARKER : VALUE_MARKER + value);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TaskCursor decode(String token, SortField sortField, SortDirection direction) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // значение идёт последним: заголовок задачи сам может содержать разделитель
+            String[] parts = raw.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4)
+                throw new BadRequestException("Invalid cursor");
+
+            if (SortField.valueOf(parts[0]) != sortField || SortDirection.valueOf(parts[1]) != direction)
+                throw new BadRequestException("Cursor does not match sortBy/direction");
+
+            UUID id = UUID.fromString(parts[2]);
+            Comparable<?> value = parts[3].equals(NULL_MARKER) ? null
+                    : parseValue(sortField, parts[3].substring(VALUE_MARKER.length()));
+            return new TaskCursor(sortField, direction, value, id);
+        } catch (IllegalArgumentException | DateTimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static Comparable<?> sortValue(TaskDTO task, SortField sortField) {
+        return switch (sortField) {
+            case TITLE -> task.getTitle();
+            case STATUS -> task.getStatus();
+            case PRIORITY -> task.getPriority();
+            case DEADLINE -> task.getDeadline();
+            case CREATED_AT -> task.getCreatedAt();
+            case UPDATED_AT -> task.getUpdatedAt();
+        };
+    }
+
+    private static Comparable<?> parseValue(SortField sortField, String value) {
+        return switch (sortField) {
+            case TITLE -> value;
+            case STATUS -> Status.valueOf(value);
+            case PRIORITY -> Priority.valueOf(value);
+            case DEADLINE, CREATED_AT, UPDATED_AT -> OffsetDateTime.parse(value);
+        };
+    }
+}
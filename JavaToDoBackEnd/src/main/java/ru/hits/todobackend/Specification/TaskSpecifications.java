@@ -1,11 +1,18 @@
 package ru.hits.todobackend.Specification;
 
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
 import org.springframework.data.jpa.domain.Specification;
 import ru.hits.todobackend.entities.Task;
 import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.SortDirection;
+import ru.hits.todobackend.entities.enum_entities.SortField;
 import ru.hits.todobackend.entities.enum_entities.Status;
 
 import java.time.OffsetDateTime;
+import java.util.UUID;
 
 import org.springframework.data.jpa.domain.Specification;
 import java.time.OffsetDateTime;
@@ -36,6 +43,16 @@ public class TaskSpecifications {
         };
     }
 
+    /**
+     * Фильтры списка задач одним вызовом; все параметры необязательны.
+     */
+    public static Specification<Task> matchesFilter(Status status, Priority priority,
+                                                    OffsetDateTime deadlineFrom, OffsetDateTime deadlineTo) {
+        return Specification.where(hasStatus(status))
+                .and(hasPriority(priority))
+                .and(deadlineBetween(deadlineFrom, deadlineTo));
+    }
+
     public static Specification<Task> deadlineBefore(OffsetDateTime deadline) {
         return (root, query, cb) -> deadline == null ? null :
                 cb.and(
@@ -43,4 +60,52 @@ public class TaskSpecifications {
                         cb.lessThan(root.get("deadline"), deadline)
                 );
     }
-}
\ No newline at end of file
+
+    /**
+     * Seek-предикат keyset-пагинации: строки строго после курсора в порядке
+     * {@link #orderedForSeek}. Задачи с NULL в nullable-поле идут последними, но не через
+     * сортировку: сначала выдаётся только диапазон непустых значений, а NULL-хвост
+     * ({@link #withoutSortValue}) читается отдельно, когда диапазон исчерпан. Так оба запроса
+     * однородны и идут по индексу (поле, id) в любом направлении.
+     *
+     * @param cursor null — первая страница; курсор с пустым значением — позиция внутри NULL-хвоста
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Specification<Task> seekAfter(SortField field, TaskCursor cursor) {
+        return (root, query, cb) -> {
+            Path<Comparable> path = root.get(field.getFieldName());
+            if (cursor == null)
+                return field.isNullable() ? cb.isNotNull(path) : null;
+
+            boolean asc = cursor.getDirection() == SortDirection.ASC;
+            Path<UUID> id = root.get("id");
+            Predicate idAfter = asc ? cb.greaterThan(id, cursor.getId()) : cb.lessThan(id, cursor.getId());
+            if (cursor.getValue() == null)
+                return cb.and(cb.isNull(path), idAfter);
+
+            Comparable value = cursor.getValue();
+            // нестрогая граница дублирует OR, но даёт планировщику диапазон для index scan
+            Predicate bound = asc ? cb.greaterThanOrEqualTo(path, value) : cb.lessThanOrEqualTo(path, value);
+            Predicate valueAfter = asc ? cb.greaterThan(path, value) : cb.lessThan(path, value);
+            return cb.and(bound, cb.or(valueAfter, cb.and(cb.equal(path, value), idAfter)));
+        };
+    }
+
+    /**
+     * Начало NULL-хвоста nullable-поля сортировки: продолжение страницы, когда непустые значения кончились.
+     */
+    public static Specification<Task> withoutSortValue(SortField field) {
+        return (root, query, cb) -> cb.isNull(root.get(field.getFieldName()));
+    }
+
+    public static Specification<Task> orderedForSeek(SortField field, SortDirection direction) {
+        return (root, query, cb) -> {
+            query.orderBy(order(cb, root.get(field.getFieldName()), direction), order(cb, root.get("id"), direction));
+            return null;
+        };
+    }
+
+    private static Order order(CriteriaBuilder cb, Path<?> path, SortDirection direction) {
+        return direction == SortDirection.ASC ? cb.asc(path) : cb.desc(path);
+    }
+}
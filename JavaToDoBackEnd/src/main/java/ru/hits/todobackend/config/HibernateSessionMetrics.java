@@ -0,0 +1,67 @@
+package ru.hits.todobackend.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import org.hibernate.SessionEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Число SQL-стейтментов и flush'ей за одну сессию Hibernate. При open-in-view сессия живёт
+ * ровно один HTTP-запрос, поэтому распределения с тегом {@code uri} — это «запросов к БД на запрос
+ * к эндпоинту»: N+1 или лишний flush видны по сдвигу гистограммы, а не только по общему счётчику.
+ * Сессии вне HTTP-запроса (планировщик, слушатели событий) получают {@code uri="NONE"}.
+ * <p>
+ * Hibernate создаёт экземпляр сам на каждую сессию ({@code hibernate.session.events.auto}),
+ * поэтому метрики пишутся в глобальный реестр, куда Spring Boot добавляет свой.
+ * Глобальные счётчики загрузок сущностей, запросов и flush'ей отдаёт hibernate-micrometer
+ * при {@code hibernate.generate_statistics=true}.
+ */
+public class HibernateSessionMetrics implements SessionEventListener {
+
+    private static final double[] BUCKETS = {1, 2, 3, 5, 10, 20, 50, 100};
+
+    private int statements;
+    private int flushes;
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        statements++;
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        statements++;
+    }
+
+    @Override
+    public void flushEnd(int numberOfEntities, int numberOfCollections) {
+        flushes++;
+    }
+
+    @Override
+    public void end() {
+        String uri = currentUri();
+        summary("todo.hibernate.session.statements", "JDBC statements executed per Hibernate session", uri)
+                .record(statements);
+        summary("todo.hibernate.session.flushes", "Flushes per Hibernate session", uri)
+                .record(flushes);
+    }
+
+    private static DistributionSummary summary(String name, String description, String uri) {
+        // фиксированные SLO-корзины вместо процентилей на клиенте: дёшево и агрегируется в Prometheus
+        return DistributionSummary.builder(name)
+                .description(description)
+                .tag("uri", uri)
+                .serviceLevelObjectives(BUCKETS)
+                .register(Metrics.globalRegistry);
+    }
+
+    private static String currentUri() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Object pattern = request == null ? null : request.getAttribute(
+                HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : "NONE";
+    }
+}
@@ -0,0 +1,100 @@
+package ru.hits.todobackend.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.Callable;
+
+/**
+ * Read-your-writes поверх реплик: изменяющий запрос выдаёт клиенту cookie {@value #COOKIE}
+ * со временем, до которого его чтения идут на основную БД, — так клиент сразу видит свою запись,
+ * даже если реплика её ещё не получила. Окно {@code todo.datasource.read-your-writes} должно
+ * покрывать допустимое отставание реплики. Сам изменяющий запрос тоже целиком идёт на основную БД.
+ * <p>
+ * Состояние пользователя не хранится на сервере: cookie переживает перезапуск и работает
+ * с любым экземпляром приложения.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String COOKIE = "todo-primary-until";
+
+    private static final Set<String> SAFE_METHODS = Set.of("GET", "HEAD", "OPTIONS");
+    private static final String PINNED_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".PINNED";
+
+    private final Duration window;
+
+    public ReadYourWritesFilter(Duration window) {
+        this.window = window;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean write = !SAFE_METHODS.contains(request.getMethod());
+        if (write) {
+            // до обработки: после неё ответ может быть уже отправлен вместе с заголовками
+            Cookie cookie = new Cookie(COOKIE, Long.toString(now + window.toMillis()));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, window.toSeconds()));
+            response.addCookie(cookie);
+        }
+        if (!write && !recentlyWrote(request, now)) {
+            chain.doFilter(request, response);
+            return;
+        }
+        request.setAttribute(PINNED_ATTRIBUTE, Boolean.TRUE);
+        ReplicaRoutingDataSource.pinToPrimary();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+
+    private static boolean recentlyWrote(HttpServletRequest request, long now) {
+        if (request.getCookies() == null) {
+            return false;
+        }
+        for (Cookie cookie : request.getCookies()) {
+            if (COOKIE.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue()) > now;
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Переносит закрепление в поток, где выполняется {@code StreamingResponseBody} (выгрузка):
+     * фильтр к тому времени уже вернулся и снял его со своего потока.
+     */
+    public static class AsyncPropagation implements CallableProcessingInterceptor {
+
+        @Override
+        public <T> void preProcess(NativeWebRequest request, Callable<T> task) {
+            if (request.getAttribute(PINNED_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) != null) {
+                ReplicaRoutingDataSource.pinToPrimary();
+            }
+        }
+
+        @Override
+        public <T> void postProcess(NativeWebRequest request, Callable<T> task, Object concurrentResult) {
+            ReplicaRoutingDataSource.unpin();
+        }
+    }
+}
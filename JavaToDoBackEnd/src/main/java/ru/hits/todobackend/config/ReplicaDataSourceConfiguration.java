@@ -0,0 +1,144 @@
+package ru.hits.todobackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Чтения с реплик: включается, когда задан {@code todo.datasource.replicas[0].url}.
+ * <p>
+ * Основная БД по-прежнему настраивается через {@code spring.datasource.*}, у каждой реплики —
+ * свой пул Hikari в режиме read-only. Все они стоят за {@link ReplicaRoutingDataSource}, который
+ * и становится {@code DataSource} приложения: Hibernate, {@code spring.sql.init} и планировщики
+ * работают с ним как раньше, а на реплику уходят только read-only транзакции. Реплика должна
+ * быть копией основной БД (потоковая репликация PostgreSQL или аналог) — схему и данные
+ * приложение на неё не пишет.
+ * <p>
+ * Дельта-синхронизации ({@code TaskSyncService}) отставание реплики не страшно, пока оно меньше
+ * {@code todo.sync.grace-period}: реплика, отставшая на {@code replica-max-lag}, выводится
+ * из ротации не позже чем через {@code replica-check-interval}, и их сумма должна быть меньше
+ * grace-period.
+ */
+@Configuration
+@ConditionalOnProperty("todo.datasource.replicas[0].url")
+@EnableConfigurationProperties(ReplicaProperties.class)
+public class ReplicaDataSourceConfiguration implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaDataSourceConfiguration.class);
+
+    private final Map<String, HikariDataSource> replicaPools = new LinkedHashMap<>();
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             DataSourceProperties primaryProperties,
+                                                             ReplicaProperties properties,
+                                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        List<ReplicaProperties.Replica> replicas = properties.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            replicaPools.put("replica-" + i, replicaPool("replica-" + i, replicas.get(i), primaryDataSource,
+                    primaryProperties, meterRegistry.getIfAvailable()));
+        }
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(new ArrayList<>(replicaPools.keySet()));
+        Map<Object, Object> targets = new HashMap<>(replicaPools);
+        targets.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+        routing.setTargetDataSources(targets);
+        routing.setDefaultTargetDataSource(primaryDataSource);
+        return routing;
+    }
+
+    /**
+     * Hibernate берёт соединение в начале транзакции, когда Spring ещё не отметил её read-only;
+     * прокси откладывает выбор БД до первого запроса.
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(HikariDataSource primaryDataSource,
+                                               ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaProperties properties,
+                                               @Value("${todo.datasource.replica-check-interval:1000}") long checkIntervalMillis,
+                                               @Value("${todo.sync.grace-period:5000}") long syncGracePeriodMillis) {
+        Duration worstLag = properties.getReplicaMaxLag().plusMillis(checkIntervalMillis);
+        if (worstLag.toMillis() >= syncGracePeriodMillis) {
+            logger.warn("Replica lag may reach {} ms, which is not below todo.sync.grace-period ({} ms): "
+                    + "delta sync may skip changes", worstLag.toMillis(), syncGracePeriodMillis);
+        }
+        return new ReplicaLagMonitor(primaryDataSource, new LinkedHashMap<>(replicaPools), replicaRoutingDataSource,
+                properties.getReplicaMaxLag());
+    }
+
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(ReplicaProperties properties) {
+        return new ReadYourWritesFilter(properties.getReadYourWrites());
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.registerCallableInterceptors(new ReadYourWritesFilter.AsyncPropagation());
+    }
+
+    @PreDestroy
+    public void closeReplicaPools() {
+        replicaPools.values().forEach(HikariDataSource::close);
+    }
+
+    private static HikariDataSource replicaPool(String name, ReplicaProperties.Replica replica,
+                                                HikariDataSource primary, DataSourceProperties primaryProperties,
+                                                MeterRegistry meterRegistry) {
+        HikariDataSource pool = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(replica.getUrl())
+                .username(replica.getUsername() != null ? replica.getUsername() : primaryProperties.determineUsername())
+                .password(replica.getPassword() != null ? replica.getPassword() : primaryProperties.determinePassword())
+                .build();
+        pool.setPoolName(name);
+        pool.setReadOnly(true);
+        // без явного размера — как у основной БД (там -1, пока Hikari не подставил свой умолчательный)
+        int poolSize = replica.getMaximumPoolSize() != null ? replica.getMaximumPoolSize() : primary.getMaximumPoolSize();
+        if (poolSize > 0) {
+            pool.setMaximumPoolSize(poolSize);
+        }
+        // метрики пула основной БД Spring Boot подключает сам, у реплик пулы не бины
+        if (meterRegistry != null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,85 @@
+package ru.hits.todobackend.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Отставание реплик по heartbeat'у: каждую проверку в основную БД пишется текущее время,
+ * а с каждой реплики читается то, что до неё уже доехало. Разница — это отставание
+ * (с точностью до интервала проверки); не годится реплика, отставшая больше
+ * {@code todo.datasource.replica-max-lag} или не ответившая. Способ не зависит от СУБД и
+ * вида репликации, а до первой успешной проверки все чтения идут на основную БД.
+ * <p>
+ * Таблица {@value #TABLE} создаётся в основной БД и на реплики приезжает репликацией.
+ */
+public class ReplicaLagMonitor {
+
+    public static final String TABLE = "replica_heartbeat";
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+    private final JdbcTemplate primary;
+    private final Map<String, JdbcTemplate> replicas;
+    private final ReplicaRoutingDataSource routing;
+    private final Duration maxLag;
+    private boolean tableReady;
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas,
+                             ReplicaRoutingDataSource routing, Duration maxLag) {
+        this.primary = new JdbcTemplate(primary);
+        this.replicas = new LinkedHashMap<>();
+        replicas.forEach((name, dataSource) -> this.replicas.put(name, new JdbcTemplate(dataSource)));
+        this.routing = routing;
+        this.maxLag = maxLag;
+    }
+
+    @Scheduled(fixedDelayString = "${todo.datasource.replica-check-interval:1000}")
+    public synchronized void check() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        try {
+            beat(now);
+        } catch (RuntimeException e) {
+            // без свежего heartbeat'а отставание не измерить — читаем с основной
+            logger.warn("Failed to write replica heartbeat, routing reads to primary", e);
+            replicas.keySet().forEach(name -> routing.setCaughtUp(name, false));
+            return;
+        }
+        replicas.forEach((name, replica) -> routing.setCaughtUp(name, isCaughtUp(name, replica, now)));
+    }
+
+    private void beat(OffsetDateTime now) {
+        if (!tableReady) {
+            primary.execute("CREATE TABLE IF NOT EXISTS " + TABLE
+                    + " (id INT PRIMARY KEY, beat_at TIMESTAMP WITH TIME ZONE NOT NULL)");
+            tableReady = true;
+        }
+        if (primary.update("UPDATE " + TABLE + " SET beat_at = ? WHERE id = 1", now) == 0) {
+            primary.update("INSERT INTO " + TABLE + " (id, beat_at) VALUES (1, ?)", now);
+        }
+    }
+
+    private boolean isCaughtUp(String name, JdbcTemplate replica, OffsetDateTime now) {
+        try {
+            OffsetDateTime replicated = replica.queryForObject(
+                    "SELECT beat_at FROM " + TABLE + " WHERE id = 1", OffsetDateTime.class);
+            Duration lag = replicated == null ? null : Duration.between(replicated, now);
+            boolean caughtUp = lag != null && lag.compareTo(maxLag) <= 0;
+            if (!caughtUp) {
+                logger.debug("Replica {} lags by {}, routing its reads to primary", name, lag);
+            }
+            return caughtUp;
+        } catch (RuntimeException e) {
+            logger.debug("Replica {} is unavailable: {}", name, e.getMessage());
+            return false;
+        }
+    }
+}
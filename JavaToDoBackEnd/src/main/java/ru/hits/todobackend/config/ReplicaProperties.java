@@ -0,0 +1,40 @@
+package ru.hits.todobackend.config;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Реплики для чтения ({@code todo.datasource.*}). Пока список пуст, приложение работает
+ * с одной {@code spring.datasource} как раньше.
+ */
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties("todo.datasource")
+public class ReplicaProperties {
+
+    List<Replica> replicas = new ArrayList<>();
+
+    // реплика, отставшая сильнее, не получает чтений, пока не догонит
+    Duration replicaMaxLag = Duration.ofSeconds(2);
+
+    // сколько после своей записи клиент читает с основной БД
+    Duration readYourWrites = Duration.ofSeconds(5);
+
+    /**
+     * Логин и пароль по умолчанию — как у основной БД.
+     */
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Replica {
+        String url;
+        String username;
+        String password;
+        Integer maximumPoolSize;
+    }
+}
@@ -0,0 +1,91 @@
+package ru.hits.todobackend.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Отправляет соединения транзакций {@code @Transactional(readOnly = true)} на реплики по кругу,
+ * всё остальное — на основную БД. Реплика получает чтения, только пока {@link ReplicaLagMonitor}
+ * считает её догнавшей; если таких нет, или поток закреплён за основной БД
+ * ({@link #pinToPrimary}, read-your-writes), чтение тоже идёт на основную.
+ * <p>
+ * Ключ выбирается в момент получения физического соединения, поэтому источник оборачивается
+ * в {@code LazyConnectionDataSourceProxy}: иначе Hibernate взял бы соединение в начале транзакции,
+ * ещё до того, как Spring отметил её read-only.
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final List<String> replicas;
+    private final Set<String> caughtUp = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(List<String> replicas) {
+        this.replicas = List.copyOf(replicas);
+    }
+
+    /**
+     * Закрепляет чтения текущего потока за основной БД до {@link #unpin()}.
+     */
+    public static void pinToPrimary() {
+        PINNED.set(Boolean.TRUE);
+    }
+
+    public static void unpin() {
+        PINNED.remove();
+    }
+
+    public static boolean isPinnedToPrimary() {
+        return PINNED.get() != null;
+    }
+
+    /**
+     * Выполняет чтение на основной БД и возвращает поток в прежнее состояние.
+     */
+    public static <T> T onPrimary(Supplier<T> read) {
+        if (isPinnedToPrimary()) {
+            return read.get();
+        }
+        pinToPrimary();
+        try {
+            return read.get();
+        } finally {
+            unpin();
+        }
+    }
+
+    public List<String> getReplicas() {
+        return replicas;
+    }
+
+    public void setCaughtUp(String replica, boolean caughtUp) {
+        if (caughtUp) {
+            this.caughtUp.add(replica);
+        } else {
+            this.caughtUp.remove(replica);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly() || isPinnedToPrimary()) {
+            return PRIMARY;
+        }
+        for (int i = 0; i < replicas.size(); i++) {
+            String replica = replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+            if (caughtUp.contains(replica)) {
+                return replica;
+            }
+        }
+        return PRIMARY;
+    }
+}
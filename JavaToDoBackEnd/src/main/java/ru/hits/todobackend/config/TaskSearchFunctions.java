@@ -0,0 +1,32 @@
+package ru.hits.todobackend.config;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.BasicTypeRegistry;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * HQL/Criteria-функции полнотекстового поиска PostgreSQL по колонке {@code tasks.search_vector}
+ * (см. schema-postgresql.sql). Оператор {@code @@} нельзя вызвать как функцию, не потеряв GIN-индекс,
+ * поэтому функции разворачиваются в SQL шаблоном. Колонка в шаблоне без алиаса таблицы —
+ * функции годятся только для запросов по одной таблице tasks без join'ов.
+ * <p>
+ * Регистрируются через META-INF/services для любого диалекта, но вызываются только на PostgreSQL.
+ */
+public class TaskSearchFunctions implements FunctionContributor {
+
+    public static final String MATCH = "task_search_match";
+    public static final String RANK = "task_search_rank";
+
+    // websearch_to_tsquery не падает на синтаксисе пользовательского ввода: кавычки, OR, минус
+    private static final String QUERY = "websearch_to_tsquery('russian', ?1)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        BasicTypeRegistry types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        functionContributions.getFunctionRegistry().registerPattern(
+                MATCH, "(search_vector @@ " + QUERY + ")", types.resolve(StandardBasicTypes.BOOLEAN));
+        functionContributions.getFunctionRegistry().registerPattern(
+                RANK, "ts_rank(search_vector, " + QUERY + ")", types.resolve(StandardBasicTypes.FLOAT));
+    }
+}
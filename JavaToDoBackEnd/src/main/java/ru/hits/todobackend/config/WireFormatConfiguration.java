@@ -0,0 +1,47 @@
+package ru.hits.todobackend.config;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Компактные двоичные форматы ответов по {@code Accept}: {@value #CBOR_VALUE} и {@value #SMILE_VALUE}.
+ * JSON остаётся форматом по умолчанию и не меняется.
+ * <p>
+ * В двоичных форматах даты пишутся числом миллисекунд от эпохи, а enum'ы — порядковым номером,
+ * а не строками: для списка задач это бо́льшая часть объёма. Поэтому новые значения
+ * в {@code Status} и {@code Priority} добавляются только в конец.
+ */
+@Configuration
+public class WireFormatConfiguration implements WebMvcConfigurer {
+
+    public static final String CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        // Spring сам добавляет эти конвертеры, когда форматы на classpath, но с настройками JSON
+        converters.removeIf(converter -> converter instanceof MappingJackson2CborHttpMessageConverter
+                || converter instanceof MappingJackson2SmileHttpMessageConverter);
+        converters.add(new MappingJackson2CborHttpMessageConverter(compact(Jackson2ObjectMapperBuilder.cbor())));
+        converters.add(new MappingJackson2SmileHttpMessageConverter(compact(Jackson2ObjectMapperBuilder.smile())));
+    }
+
+    public static ObjectMapper compact(Jackson2ObjectMapperBuilder builder) {
+        return builder
+                .featuresToEnable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS,
+                        SerializationFeature.WRITE_ENUMS_USING_INDEX)
+                .featuresToDisable(SerializationFeature.WRITE_DATE_TIMESTAMPS_AS_NANOSECONDS,
+                        DeserializationFeature.READ_DATE_TIMESTAMPS_AS_NANOSECONDS)
+                .build();
+    }
+}
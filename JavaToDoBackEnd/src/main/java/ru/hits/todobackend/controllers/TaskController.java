@@ -1,21 +1,44 @@
 package ru.hits.todobackend.controllers;
 
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.hits.todobackend.dto.BatchCreateResultDTO;
+import ru.hits.todobackend.dto.BulkResultDTO;
+import ru.hits.todobackend.dto.BulkUpdateTaskDTO;
 import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.dto.TaskCacheStatsDTO;
+import ru.hits.todobackend.dto.TaskChangesDTO;
 import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.dto.TaskPageDTO;
+import ru.hits.todobackend.dto.TaskStatsDTO;
 import ru.hits.todobackend.dto.UpdateTaskDTO;
+import ru.hits.todobackend.entities.enum_entities.ExportFormat;
 import ru.hits.todobackend.entities.enum_entities.Priority;
 import ru.hits.todobackend.entities.enum_entities.SortDirection;
 import ru.hits.todobackend.entities.enum_entities.SortField;
 import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.exception.PreconditionFailedException;
+import ru.hits.todobackend.services.TaskBulkService;
+import ru.hits.todobackend.services.TaskEventFeed;
+import ru.hits.todobackend.services.TaskExportService;
+import ru.hits.todobackend.services.TaskResponseCache;
 import ru.hits.todobackend.services.TaskService;
+import ru.hits.todobackend.services.TaskStatsService;
+import ru.hits.todobackend.services.TaskSyncService;
 import ru.hits.todobackend.services.XmlProcessorService;
 
 import java.io.*;
@@ -31,10 +54,18 @@ import java.util.logging.Logger;
 public class TaskController {
 
     private final TaskService taskService;
+    private final TaskBulkService taskBulkService;
+    private final TaskExportService taskExportService;
+    private final TaskResponseCache taskResponseCache;
+    private final TaskEventFeed taskEventFeed;
+    private final TaskSyncService taskSyncService;
+    private final TaskStatsService taskStatsService;
     private final XmlProcessorService xmlProcessorService;
 
     private static final Logger LOGGER = Logger.getLogger(TaskController.class.getName());
 
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+
     @PostMapping
     public ResponseEntity<TaskDTO> createTask(@Valid @RequestBody CreateTaskDTO taskDTO, HttpServletRequest request) {
         // Уязвимость: логирование пользовательских данных
@@ -45,40 +76,172 @@ public class TaskController {
         return new ResponseEntity<>(createdTask, HttpStatus.CREATED);
     }
 
+    @PostMapping("/batch")
+    public List<BatchCreateResultDTO> createTasks(@RequestBody List<CreateTaskDTO> taskDTOs) {
+        return taskService.createTasks(taskDTOs);
+    }
+
     @PutMapping("/{id}/update")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void updateTask(@PathVariable UUID id, @Valid @RequestBody UpdateTaskDTO updateTaskDto) {
-        taskService.updateTask(id, updateTaskDto);
+    public void updateTask(@PathVariable UUID id, @Valid @RequestBody UpdateTaskDTO updateTaskDto,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        taskService.updateTask(id, updateTaskDto, expectedVersion(ifMatch));
+    }
+
+    // только пришедшие поля; в отличие от PUT отсутствующее описание не стирается
+    @PatchMapping("/{id}")
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void patchTask(@PathVariable UUID id, @Valid @RequestBody UpdateTaskDTO updateTaskDto,
+                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        taskService.patchTask(id, updateTaskDto, expectedVersion(ifMatch));
     }
 
     @PatchMapping("/{id}/toggle")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void toggleTaskStatus(@PathVariable UUID id) {
-        taskService.toggleTask(id);
+    public void toggleTaskStatus(@PathVariable UUID id,
+                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        taskService.toggleTask(id, expectedVersion(ifMatch));
     }
 
     @DeleteMapping("/{id}/delete")
     @ResponseStatus(HttpStatus.NO_CONTENT)
-    public void deleteTask(@PathVariable UUID id) {
+    public void deleteTask(@PathVariable UUID id,
+                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
         LOGGER.warning("Deleting task with ID: " + id);
-        taskService.deleteTask(id);
+        taskService.deleteTask(id, expectedVersion(ifMatch));
+    }
+
+    // один set-based запрос на пачку вместо вызова на каждую задачу; хотя бы один фильтр обязателен
+    @PutMapping("/bulk/update")
+    public BulkResultDTO updateTasks(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime deadlineFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime deadlineTo,
+            @RequestBody BulkUpdateTaskDTO changes
+    ) {
+        return taskBulkService.updateTasks(status, priority, deadlineFrom, deadlineTo, changes);
+    }
+
+    @DeleteMapping("/bulk/delete")
+    public BulkResultDTO deleteTasks(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime deadlineFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime deadlineTo
+    ) {
+        return taskBulkService.deleteTasks(status, priority, deadlineFrom, deadlineTo);
     }
 
     @GetMapping
-    public List<TaskDTO> getAllTasks(
+    public ResponseEntity<List<TaskDTO>> getAllTasks(
+            @RequestParam(required = false) Status status,
+            @RequestParam(required = false) Priority priority,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime deadlineFrom,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime deadlineTo,
+            @Parameter(description = "По умолчанию CREATED_AT, а с q — по релевантности")
+            @RequestParam(required = false) SortField sortBy,
+            @RequestParam(defaultValue = "ASC") SortDirection direction,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) String after,
+            @Parameter(description = "Полнотекстовый поиск по заголовку и описанию; выдача всегда постраничная")
+            @RequestParam(required = false) String q
+    ) {
+        if (q != null && q.isBlank()) {
+            q = null;
+        }
+        TaskPageDTO page;
+        if (q != null && sortBy == null) {
+            page = taskService.searchTasks(q, status, priority, deadlineFrom, deadlineTo, limit, after);
+        } else {
+            SortField sort = sortBy != null ? sortBy : SortField.CREATED_AT;
+            if (limit == null && after == null && q == null) {
+                return ResponseEntity.ok(taskService.getAllTasks(status, priority, deadlineFrom, deadlineTo, sort, direction));
+            }
+            page = taskService.getTasksPage(status, priority, deadlineFrom, deadlineTo, sort, direction, limit, after, q);
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        if (page.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return new ResponseEntity<>(page.getItems(), headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportTasks(
             @RequestParam(required = false) Status status,
             @RequestParam(required = false) Priority priority,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime deadlineFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime deadlineTo,
-            @RequestParam(defaultValue = "CREATED_AT") SortField sortBy,
-            @RequestParam(defaultValue = "ASC") SortDirection direction
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format
     ) {
-        return taskService.getAllTasks(status, priority, deadlineFrom, deadlineTo, sortBy, direction);
+        StreamingResponseBody body = out ->
+                taskExportService.export(status, priority, deadlineFrom, deadlineTo, format, out);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_TYPE, format.getContentType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=tasks." + format.getExtension())
+                .body(body);
     }
 
-    @GetMapping("/{id}")
-    public TaskDTO getTaskById(@PathVariable UUID id) {
-        return taskService.getTaskById(id);
+    // повторная синхронизация без полного списка: только изменённые задачи и id удалённых;
+    // запрашивать с nextToken, пока hasMore, а nextToken последнего ответа сохранить до следующего раза
+    @GetMapping("/changes")
+    public TaskChangesDTO getTaskChanges(@RequestParam(required = false) String since,
+                                         @RequestParam(required = false) Integer limit) {
+        return taskSyncService.getChanges(since, limit);
+    }
+
+    // счётчики из памяти, без запроса к БД; правки в обход приложения видны после ближайшей сверки
+    @GetMapping("/stats")
+    public TaskStatsDTO getTaskStats() {
+        return taskStatsService.getStats();
+    }
+
+    // вместо опроса списка: поток событий об изменениях; после обрыва клиент (EventSource)
+    // сам переподключается с Last-Event-ID и дочитывает пропущенное
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskEvents(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return taskEventFeed.subscribe(lastEventId);
+    }
+
+    // готовый JSON из кэша отдаётся как есть, минуя Jackson; If-None-Match по заголовку
+    // ETag ответа Spring сверяет сам и при совпадении отвечает 304 без тела
+    @GetMapping(value = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = TaskDTO.class)))
+    public ResponseEntity<byte[]> getTaskById(@PathVariable UUID id) {
+        TaskResponseCache.TaskJson task = taskResponseCache.getTaskJson(id);
+        return ResponseEntity.ok()
+                .eTag(eTag(task.version()))
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(task.body());
+    }
+
+    @GetMapping("/cache/stats")
+    public TaskCacheStatsDTO getCacheStats() {
+        return taskResponseCache.getStats();
+    }
+
+    private static String eTag(long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Версия из {@code If-Match}: null, если заголовка нет или он равен {@code *}.
+     * If-Match сравнивает теги строго, поэтому слабый или чужой тег не совпадёт ни с одной версией.
+     */
+    private static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) return null;
+
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"')
+            throw new PreconditionFailedException("If-Match does not match the current task version");
+        try {
+            return Long.parseLong(tag.substring(1, tag.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new PreconditionFailedException("If-Match does not match the current task version");
+        }
     }
 
     // Уязвимость: Path Traversal
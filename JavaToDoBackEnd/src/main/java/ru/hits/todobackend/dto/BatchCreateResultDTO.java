@@ -0,0 +1,28 @@
+package ru.hits.todobackend.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BatchCreateResultDTO {
+
+    int index;
+
+    TaskDTO task;
+
+    String error;
+
+    public static BatchCreateResultDTO created(int index, TaskDTO task) {
+        return new BatchCreateResultDTO(index, task, null);
+    }
+
+    public static BatchCreateResultDTO rejected(int index, String error) {
+        return new BatchCreateResultDTO(index, null, error);
+    }
+}
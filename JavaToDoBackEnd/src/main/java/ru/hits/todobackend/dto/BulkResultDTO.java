@@ -0,0 +1,19 @@
+package ru.hits.todobackend.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkResultDTO {
+
+    long affected;
+
+    // сколько транзакций понадобилось: по одной на пачку
+    int chunks;
+}
@@ -0,0 +1,18 @@
+package ru.hits.todobackend.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Что поменять у всех задач под фильтром; null — поле не трогать.
+ */
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class BulkUpdateTaskDTO {
+    Priority priority;
+    OffsetDateTime deadline;
+}
@@ -13,8 +13,10 @@ import java.time.OffsetDateTime;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class CreateTaskDTO {
     @NotNull
+    @Size(max = 255)
     String title;
 
+    @Size(max = 255)
     String description;
 
     Priority priority;
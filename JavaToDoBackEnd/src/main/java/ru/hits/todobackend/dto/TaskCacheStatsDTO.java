@@ -0,0 +1,30 @@
+package ru.hits.todobackend.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TaskCacheStatsDTO {
+
+    long hits;
+
+    long misses;
+
+    long evictions;
+
+    long invalidations;
+
+    long expirations;
+
+    long rejections;
+
+    long entries;
+
+    long usedBytes;
+
+    long allocatedBytes;
+
+    long capacityBytes;
+}
@@ -0,0 +1,25 @@
+package ru.hits.todobackend.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TaskChangesDTO {
+
+    List<TaskDTO> items;
+
+    List<UUID> deletedIds;
+
+    String nextToken;
+
+    boolean hasMore;
+}
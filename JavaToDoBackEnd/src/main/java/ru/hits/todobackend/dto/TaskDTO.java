@@ -1,8 +1,11 @@
 package ru.hits.todobackend.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.validation.constraints.NotNull;
 import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import ru.hits.todobackend.entities.enum_entities.Priority;
 import ru.hits.todobackend.entities.enum_entities.Status;
@@ -11,6 +14,8 @@ import java.time.OffsetDateTime;
 import java.util.UUID;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class TaskDTO {
 
@@ -37,5 +42,9 @@ public class TaskDTO {
 
     @NotNull
     OffsetDateTime updatedAt;
+
+    // уходит клиенту заголовком ETag, а не полем тела
+    @JsonIgnore
+    Long version;
 }
 
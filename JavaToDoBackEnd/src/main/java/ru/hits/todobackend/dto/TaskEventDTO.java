@@ -0,0 +1,35 @@
+package ru.hits.todobackend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangeType;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Тело события в {@code GET /api/tasks/events}. Для одиночных изменений заполнен {@code taskId}
+ * (и статус с дедлайном, если они известны), для OVERDUE — {@code taskIds} и {@code count};
+ * {@code taskIds == null} у OVERDUE означает сверку по всей таблице.
+ */
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class TaskEventDTO {
+
+    TaskChangeType type;
+
+    UUID taskId;
+
+    List<UUID> taskIds;
+
+    Integer count;
+
+    Status status;
+
+    OffsetDateTime deadline;
+}
@@ -0,0 +1,20 @@
+package ru.hits.todobackend.dto;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TaskPageDTO {
+
+    List<TaskDTO> items;
+
+    String nextCursor;
+}
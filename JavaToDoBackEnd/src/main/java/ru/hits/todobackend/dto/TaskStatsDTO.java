@@ -0,0 +1,25 @@
+package ru.hits.todobackend.dto;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+
+import java.util.Map;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class TaskStatsDTO {
+
+    long total;
+
+    Map<Status, Long> byStatus;
+
+    Map<Priority, Long> byPriority;
+
+    Map<Status, Map<Priority, Long>> byStatusAndPriority;
+
+    // ещё не выполненные (ACTIVE и OVERDUE) задачи с дедлайном в текущих сутках
+    long dueToday;
+}
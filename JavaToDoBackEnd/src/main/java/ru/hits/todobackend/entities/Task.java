@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.UpdateTimestamp;
 import ru.hits.todobackend.entities.enum_entities.Priority;
 import ru.hits.todobackend.entities.enum_entities.Status;
@@ -16,7 +17,27 @@ import java.util.UUID;
 @Getter
 @Setter
 @Entity
-@Table(name = "tasks")
+// UPDATE при merge пишет только изменённые колонки, а не все девять
+@DynamicUpdate
+/*
+ * Индексы под реальные запросы: у каждой keyset-сортировки по SortField свой индекс (поле, id)
+ * в порядке ORDER BY, (deadline_date, id) заодно обслуживает диапазон дедлайнов;
+ * (status, deadline_date) — сверка дедлайнов и фильтр по статусу, (priority, creation_date) —
+ * фильтр по приоритету с сортировкой по умолчанию. Индексы сортировок объявлены первыми: при равной
+ * оценке диапазона H2 берёт первый подходящий индекс, а (status, id) в отличие от (status, deadline_date)
+ * отдаёт строки уже в порядке страницы. Частичный индекс по ACTIVE-задачам
+ * для PostgreSQL лежит в schema-postgresql.sql: JPA не умеет описывать WHERE у индекса.
+ */
+@Table(name = "tasks", indexes = {
+        @Index(name = "idx_tasks_status_id", columnList = "status, id"),
+        @Index(name = "idx_tasks_priority_id", columnList = "priority, id"),
+        @Index(name = "idx_tasks_deadline_id", columnList = "deadline_date, id"),
+        @Index(name = "idx_tasks_creation", columnList = "creation_date, id"),
+        @Index(name = "idx_tasks_update", columnList = "update_date, id"),
+        @Index(name = "idx_tasks_title", columnList = "task_title, id"),
+        @Index(name = "idx_tasks_status_deadline", columnList = "status, deadline_date"),
+        @Index(name = "idx_tasks_priority_creation", columnList = "priority, creation_date")
+})
 @NoArgsConstructor
 @AllArgsConstructor
 public class Task {
@@ -50,4 +71,9 @@ public class Task {
     @Column(name = "update_date", nullable = false, columnDefinition = "TIMESTAMPTZ")
     private OffsetDateTime updatedAt;
 
+    // DEFAULT 0, чтобы ddl-auto=update смог добавить колонку в уже заполненную таблицу
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+
 }
@@ -0,0 +1,32 @@
+package ru.hits.todobackend.entities;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Запись журнала удалений (tombstone) для дельта-синхронизации: удалённой строки в tasks уже нет,
+ * и без журнала клиент не узнал бы, что задачу надо убрать. Индекс повторяет порядок выборки
+ * {@code GET /api/tasks/changes}; старые записи чистит {@code TaskSyncService}.
+ */
+@Getter
+@Setter
+@Entity
+@Table(name = "task_deletions", indexes = {
+        @Index(name = "idx_task_deletions_deleted", columnList = "deleted_at, task_id")
+})
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskDeletion {
+    @Id
+    @Column(name = "task_id")
+    private UUID taskId;
+
+    @Column(name = "deleted_at", nullable = false, columnDefinition = "TIMESTAMPTZ")
+    private OffsetDateTime deletedAt;
+}
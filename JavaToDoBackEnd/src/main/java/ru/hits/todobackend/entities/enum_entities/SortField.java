@@ -1,20 +1,26 @@
 package ru.hits.todobackend.entities.enum_entities;
 
 public enum SortField {
-    TITLE("title"),
-    STATUS("status"),
-    PRIORITY("priority"),
-    DEADLINE("deadline"),
-    CREATED_AT("createdAt"),
-    UPDATED_AT("updatedAt");
+    TITLE("title", true),
+    STATUS("status", false),
+    PRIORITY("priority", false),
+    DEADLINE("deadline", true),
+    CREATED_AT("createdAt", false),
+    UPDATED_AT("updatedAt", false);
 
     private final String fieldName;
+    private final boolean nullable;
 
-    SortField(String fieldName) {
+    SortField(String fieldName, boolean nullable) {
         this.fieldName = fieldName;
+        this.nullable = nullable;
     }
 
     public String getFieldName() {
         return fieldName;
     }
+
+    public boolean isNullable() {
+        return nullable;
+    }
 }
@@ -0,0 +1,9 @@
+package ru.hits.todobackend.events;
+
+public enum TaskChangeType {
+    CREATED,
+    UPDATED,
+    TOGGLED,
+    DELETED,
+    OVERDUE
+}
@@ -0,0 +1,63 @@
+package ru.hits.todobackend.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Status;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Публикуется {@code TaskService} после каждой мутации задачи. {@code previous} — состояние
+ * до изменения (null для CREATED), {@code current} — после (null для DELETED).
+ * У правки только текста (PATCH заголовка или описания) оба null: состояние не менялось,
+ * и его даже не читали — см. {@link #isTextOnly()}.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TaskChangedEvent {
+
+    private final TaskChangeType type;
+    private final UUID taskId;
+    private final TaskState previous;
+    private final TaskState current;
+
+    public static TaskChangedEvent created(Task task) {
+        return new TaskChangedEvent(TaskChangeType.CREATED, task.getId(), null, TaskState.of(task));
+    }
+
+    public static TaskChangedEvent updated(TaskState previous, Task task) {
+        return new TaskChangedEvent(TaskChangeType.UPDATED, task.getId(), previous, TaskState.of(task));
+    }
+
+    public static TaskChangedEvent updated(UUID taskId, TaskState previous, TaskState current) {
+        return new TaskChangedEvent(TaskChangeType.UPDATED, taskId, previous, current);
+    }
+
+    public static TaskChangedEvent textEdited(UUID taskId) {
+        return new TaskChangedEvent(TaskChangeType.UPDATED, taskId, null, null);
+    }
+
+    public static TaskChangedEvent toggled(UUID taskId, TaskState previous, TaskState current) {
+        return new TaskChangedEvent(TaskChangeType.TOGGLED, taskId, previous, current);
+    }
+
+    public static TaskChangedEvent deleted(UUID taskId, TaskState previous) {
+        return new TaskChangedEvent(TaskChangeType.DELETED, taskId, previous, null);
+    }
+
+    public boolean isTextOnly() {
+        return type == TaskChangeType.UPDATED && previous == null && current == null;
+    }
+
+    public Status getStatus() {
+        return current != null ? current.status() : null;
+    }
+
+    public OffsetDateTime getDeadline() {
+        return current != null ? current.deadline() : null;
+    }
+}
@@ -0,0 +1,38 @@
+package ru.hits.todobackend.events;
+
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Поля задачи, от которых зависят агрегаты: статус, приоритет и дедлайн.
+ */
+public record TaskState(Status status, Priority priority, OffsetDateTime deadline) {
+
+    public static TaskState of(Task task) {
+        return new TaskState(task.getStatus(), task.getPriority(), task.getDeadline());
+    }
+
+    /**
+     * Задача ещё не выполнена: ACTIVE или OVERDUE.
+     */
+    public boolean isOpen() {
+        return status == Status.ACTIVE || status == Status.OVERDUE;
+    }
+
+    /**
+     * Состояние после переключения в момент {@code now} — те же переходы,
+     * что в {@code TaskReturningRepository.toggleStatus}.
+     */
+    public TaskState toggled(OffsetDateTime now) {
+        Status next = switch (status) {
+            case ACTIVE -> Status.COMPLETED;
+            case COMPLETED -> deadline != null && deadline.isBefore(now) ? Status.OVERDUE : Status.ACTIVE;
+            case OVERDUE -> Status.LATE;
+            case LATE -> Status.OVERDUE;
+        };
+        return new TaskState(next, priority, deadline);
+    }
+}
@@ -0,0 +1,37 @@
+package ru.hits.todobackend.events;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Публикуется {@code DeadlineCheckService}, когда задачи переведены в OVERDUE
+ * set-based UPDATE'ом в обход {@code TaskService}. При сверке по всей таблице
+ * затронутые id неизвестны — тогда {@code taskIds} равен null. {@code markedAt} —
+ * значение update_date, которое UPDATE записал во все переведённые строки.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class TasksMarkedOverdueEvent {
+
+    private final List<UUID> taskIds;
+    private final int count;
+    private final OffsetDateTime markedAt;
+
+    public static TasksMarkedOverdueEvent of(List<UUID> taskIds, int count, OffsetDateTime markedAt) {
+        return new TasksMarkedOverdueEvent(taskIds, count, markedAt);
+    }
+
+    public static TasksMarkedOverdueEvent sweep(int count, OffsetDateTime markedAt) {
+        return new TasksMarkedOverdueEvent(null, count, markedAt);
+    }
+
+    public boolean isSweep() {
+        return taskIds == null;
+    }
+}
@@ -0,0 +1,7 @@
+package ru.hits.todobackend.exception;
+
+public class GoneException extends RuntimeException {
+    public GoneException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.hits.todobackend.exception;
+
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package ru.hits.todobackend.repository;
+
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+
+public interface TaskCountView {
+
+    Status getStatus();
+
+    Priority getPriority();
+
+    long getCount();
+}
@@ -0,0 +1,11 @@
+package ru.hits.todobackend.repository;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+public interface TaskDeadlineView {
+
+    UUID getId();
+
+    OffsetDateTime getDeadline();
+}
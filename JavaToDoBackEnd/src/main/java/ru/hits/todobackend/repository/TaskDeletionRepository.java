@@ -0,0 +1,49 @@
+package ru.hits.todobackend.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hits.todobackend.entities.TaskDeletion;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface TaskDeletionRepository extends JpaRepository<TaskDeletion, UUID> {
+
+    /**
+     * Пишет tombstone одним INSERT: {@code save} с заданным id сначала сделал бы SELECT.
+     */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO TaskDeletion (taskId, deletedAt) VALUES (:taskId, :deletedAt)")
+    int record(@Param("taskId") UUID taskId, @Param("deletedAt") OffsetDateTime deletedAt);
+
+    /**
+     * Tombstone'ы для пачки задач одним INSERT ... SELECT — до их удаления, в той же транзакции.
+     */
+    @Modifying
+    @Transactional
+    @Query("INSERT INTO TaskDeletion (taskId, deletedAt) SELECT t.id, :deletedAt FROM Task t WHERE t.id IN :taskIds")
+    int recordAll(@Param("taskIds") Collection<UUID> taskIds, @Param("deletedAt") OffsetDateTime deletedAt);
+
+    /**
+     * Keyset-выборка по индексу {@code (deleted_at, task_id)}: записи строго после позиции.
+     */
+    @Query("SELECT d FROM TaskDeletion d " +
+            "WHERE d.deletedAt > :deletedAt OR (d.deletedAt = :deletedAt AND d.taskId > :taskId) " +
+            "ORDER BY d.deletedAt, d.taskId")
+    List<TaskDeletion> findAfter(@Param("deletedAt") OffsetDateTime deletedAt, @Param("taskId") UUID taskId,
+                                 Limit limit);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM TaskDeletion d WHERE d.deletedAt < :before")
+    int deleteOlderThan(@Param("before") OffsetDateTime before);
+}
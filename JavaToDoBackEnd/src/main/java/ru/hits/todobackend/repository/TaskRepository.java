@@ -2,11 +2,103 @@ package ru.hits.todobackend.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hits.todobackend.dto.TaskDTO;
 import ru.hits.todobackend.entities.Task;
 
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface TaskRepository extends JpaRepository<Task, UUID>, JpaSpecificationExecutor<Task> {
+public interface TaskRepository extends JpaRepository<Task, UUID>, JpaSpecificationExecutor<Task>,
+        TaskReturningRepository {
+
+    /**
+     * Задача сразу в виде {@link TaskDTO}: constructor expression не создаёт управляемую
+     * сущность, поэтому нет ни снимка для dirty checking, ни записи в persistence context.
+     */
+    @Query("SELECT new ru.hits.todobackend.dto.TaskDTO(t.id, t.title, t.description, t.status, t.priority, " +
+            "t.deadline, t.createdAt, t.updatedAt, t.version) FROM Task t WHERE t.id = :id")
+    Optional<TaskDTO> findDtoById(@Param("id") UUID id);
+
+    /**
+     * Статус, приоритет, дедлайн и версия задачи без загрузки сущности — чтобы узнать,
+     * из какого состояния уходит задача при частичном обновлении.
+     */
+    @Query("SELECT t.status AS status, t.priority AS priority, t.deadline AS deadline, t.version AS version " +
+            "FROM Task t WHERE t.id = :id")
+    Optional<TaskStateView> findStateById(@Param("id") UUID id);
+
+    /**
+     * Переводит в OVERDUE не более {@code limit} просроченных ACTIVE-задач в собственной
+     * транзакции, чтобы блокировки строк держались недолго.
+     * <p>
+     * Пачка сначала забирается {@link #claimOverdueChunk} со {@code SKIP LOCKED}: узлы, сверяющие
+     * одновременно, разбирают непересекающиеся пачки, а не ждут друг друга на одних и тех же строках.
+     * Пропущенную из-за правки пользователя задачу переведёт индекс дедлайнов по событию
+     * этой правки или следующая сверка.
+     */
+    @Transactional
+    default int markOverdueChunk(OffsetDateTime now, int limit) {
+        List<UUID> claimed = claimOverdueChunk(now, limit);
+        return claimed.isEmpty() ? 0 : markOverdue(claimed, now);
+    }
+
+    /**
+     * Блокирует до {@code limit} просроченных ACTIVE-задач, ещё не заблокированных другими транзакциями.
+     * Отдельным запросом, а не подзапросом в UPDATE: H2 перевычисляет подзапрос с FOR UPDATE
+     * на каждую строку внешнего UPDATE. Нативный, потому что диалект Hibernate для H2 не выводит
+     * SKIP LOCKED, а id текстом, потому что H2 отдаёт UUID из нативного запроса байтами.
+     */
+    @Query(value = "SELECT CAST(id AS VARCHAR) FROM tasks WHERE status = 'ACTIVE' AND deadline_date < :now " +
+            "LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<UUID> claimOverdueChunk(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    /**
+     * Условный перевод конкретных задач в OVERDUE: задача, которую успели
+     * завершить, удалить или перенести, не изменится.
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Task t SET t.status = ru.hits.todobackend.entities.enum_entities.Status.OVERDUE, t.updatedAt = :now, " +
+            "t.version = t.version + 1 " +
+            "WHERE t.id IN :ids AND t.status = ru.hits.todobackend.entities.enum_entities.Status.ACTIVE " +
+            "AND t.deadline <= :now")
+    int markOverdue(@Param("ids") Collection<UUID> ids, @Param("now") OffsetDateTime now);
+
+    @Query("SELECT t.id AS id, t.deadline AS deadline FROM Task t " +
+            "WHERE t.status = ru.hits.todobackend.entities.enum_entities.Status.ACTIVE " +
+            "AND t.deadline IS NOT NULL AND t.deadline < :horizon")
+    List<TaskDeadlineView> findActiveDeadlinesBefore(@Param("horizon") OffsetDateTime horizon);
+
+    @Query("SELECT t.id AS id, t.title AS title, t.description AS description FROM Task t")
+    List<TaskTextView> findAllText();
+
+    @Query("SELECT t.id AS id, t.title AS title, t.description AS description FROM Task t WHERE t.id IN :ids")
+    List<TaskTextView> findTextByIds(@Param("ids") Collection<UUID> ids);
+
+    @Query("SELECT t.status AS status, t.priority AS priority, COUNT(t) AS count FROM Task t " +
+            "GROUP BY t.status, t.priority")
+    List<TaskCountView> countByStatusAndPriority();
+
+    /**
+     * Задачи, которые перевёл в OVERDUE UPDATE с {@code update_date = :markedAt}, по приоритетам;
+     * идёт по индексу idx_tasks_update.
+     */
+    @Query("SELECT t.status AS status, t.priority AS priority, COUNT(t) AS count FROM Task t " +
+            "WHERE t.updatedAt = :markedAt AND t.status = ru.hits.todobackend.entities.enum_entities.Status.OVERDUE " +
+            "GROUP BY t.status, t.priority")
+    List<TaskCountView> countMarkedOverdue(@Param("markedAt") OffsetDateTime markedAt);
+
+    @Query("SELECT COUNT(t) FROM Task t WHERE t.status IN (ru.hits.todobackend.entities.enum_entities.Status.ACTIVE, " +
+            "ru.hits.todobackend.entities.enum_entities.Status.OVERDUE) AND t.deadline >= :from AND t.deadline < :to")
+    long countOpenDueBetween(@Param("from") OffsetDateTime from, @Param("to") OffsetDateTime to);
 }
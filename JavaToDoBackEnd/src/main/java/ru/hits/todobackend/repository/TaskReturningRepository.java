@@ -0,0 +1,28 @@
+package ru.hits.todobackend.repository;
+
+import ru.hits.todobackend.events.TaskState;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Запись одной задачи, которая сама возвращает прежнее состояние строки: счётчикам статистики
+ * нужно знать, из какого статуса ушла задача, и отдельный SELECT перед записью им не нужен.
+ * Пустой результат — строка не изменилась: задачи нет или версия не совпала.
+ */
+public interface TaskReturningRepository {
+
+    /**
+     * Переключает статус одним UPDATE: ACTIVE ↔ COMPLETED, OVERDUE ↔ LATE.
+     * Завершённая задача с уже прошедшим дедлайном открывается сразу как OVERDUE.
+     *
+     * @param expectedVersion версия из {@code If-Match}; null — без предусловия
+     */
+    Optional<TaskState> toggleStatus(UUID id, OffsetDateTime now, Long expectedVersion);
+
+    /**
+     * Удаление одним DELETE без загрузки сущности; {@code expectedVersion} — как в {@link #toggleStatus}.
+     */
+    Optional<TaskState> deleteTaskById(UUID id, Long expectedVersion);
+}
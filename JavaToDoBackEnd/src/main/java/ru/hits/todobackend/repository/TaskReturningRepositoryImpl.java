@@ -0,0 +1,96 @@
+package ru.hits.todobackend.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskState;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Нативный SQL, потому что JPQL не умеет отдавать строки из UPDATE и DELETE. На PostgreSQL
+ * прежняя строка берётся из CTE с {@code FOR UPDATE} и возвращается через {@code RETURNING},
+ * на остальных БД (H2 в тестах) — из дельта-таблицы {@code OLD TABLE (...)}.
+ * Условие на версию добавляется в текст запроса, а не через {@code :v IS NULL}: PostgreSQL
+ * не может вывести тип параметра, пришедшего null.
+ */
+public class TaskReturningRepositoryImpl implements TaskReturningRepository {
+
+    private final boolean postgres;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TaskReturningRepositoryImpl(EntityManagerFactory entityManagerFactory) {
+        this.postgres = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    @Override
+    @Transactional
+    public Optional<TaskState> toggleStatus(UUID id, OffsetDateTime now, Long expectedVersion) {
+        String sql = postgres
+                ? "WITH old AS (SELECT t.id, t.status, t.priority, t.deadline_date FROM tasks t "
+                        + where(expectedVersion) + " FOR UPDATE) "
+                        + "UPDATE tasks t SET status = " + toggledStatus("old")
+                        + ", update_date = :now, version = t.version + 1 FROM old WHERE t.id = old.id "
+                        + "RETURNING old.status, old.priority, old.deadline_date"
+                : "SELECT status, priority, deadline_date FROM OLD TABLE (UPDATE tasks t SET status = "
+                        + toggledStatus("t") + ", update_date = :now, version = t.version + 1 "
+                        + where(expectedVersion) + ")";
+        return previous(query(sql, id, expectedVersion).setParameter("now", now));
+    }
+
+    @Override
+    @Transactional
+    public Optional<TaskState> deleteTaskById(UUID id, Long expectedVersion) {
+        // DELETE ... RETURNING и так отдаёт удалённую строку, CTE здесь не нужен
+        String sql = postgres
+                ? "DELETE FROM tasks t " + where(expectedVersion) + " RETURNING t.status, t.priority, t.deadline_date"
+                : "SELECT status, priority, deadline_date FROM OLD TABLE (DELETE FROM tasks t "
+                        + where(expectedVersion) + ")";
+        return previous(query(sql, id, expectedVersion));
+    }
+
+    private static String toggledStatus(String row) {
+        return "CASE " + row + ".status "
+                + "WHEN 'ACTIVE' THEN 'COMPLETED' "
+                + "WHEN 'COMPLETED' THEN CASE WHEN " + row + ".deadline_date < :now THEN 'OVERDUE' ELSE 'ACTIVE' END "
+                + "WHEN 'OVERDUE' THEN 'LATE' "
+                + "WHEN 'LATE' THEN 'OVERDUE' END";
+    }
+
+    private static String where(Long expectedVersion) {
+        return expectedVersion == null ? "WHERE t.id = :id" : "WHERE t.id = :id AND t.version = :expectedVersion";
+    }
+
+    private NativeQuery<Object[]> query(String sql, UUID id, Long expectedVersion) {
+        @SuppressWarnings("unchecked")
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class);
+        query.addSynchronizedEntityClass(Task.class)
+                .addScalar("status", String.class)
+                .addScalar("priority", String.class)
+                .addScalar("deadline_date", OffsetDateTime.class)
+                .setParameter("id", id);
+        if (expectedVersion != null) query.setParameter("expectedVersion", expectedVersion);
+        return query;
+    }
+
+    private static Optional<TaskState> previous(NativeQuery<Object[]> query) {
+        List<Object[]> rows = query.getResultList();
+        if (rows.isEmpty()) return Optional.empty();
+        Object[] row = rows.get(0);
+        return Optional.of(new TaskState(Status.valueOf((String) row[0]), Priority.valueOf((String) row[1]),
+                (OffsetDateTime) row[2]));
+    }
+}
@@ -0,0 +1,17 @@
+package ru.hits.todobackend.repository;
+
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+
+import java.time.OffsetDateTime;
+
+public interface TaskStateView {
+
+    Status getStatus();
+
+    Priority getPriority();
+
+    OffsetDateTime getDeadline();
+
+    Long getVersion();
+}
@@ -0,0 +1,12 @@
+package ru.hits.todobackend.repository;
+
+import java.util.UUID;
+
+public interface TaskTextView {
+
+    UUID getId();
+
+    String getTitle();
+
+    String getDescription();
+}
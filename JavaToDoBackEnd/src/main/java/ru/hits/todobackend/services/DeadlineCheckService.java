@@ -1,44 +1,185 @@
 package ru.hits.todobackend.services;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.jpa.domain.Specification;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import ru.hits.todobackend.Specification.TaskSpecifications;
-import ru.hits.todobackend.entities.Task;
+import org.springframework.transaction.event.TransactionalEventListener;
 import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TasksMarkedOverdueEvent;
+import ru.hits.todobackend.repository.TaskDeadlineView;
 import ru.hits.todobackend.repository.TaskRepository;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
-@RequiredArgsConstructor
 public class DeadlineCheckService {
 
+    public static final int SWEEP_CHUNK_SIZE = 10_000;
+    public static final int FLIP_BATCH_SIZE = 1_000;
+    /**
+     * В индексе держим только дедлайны ближайшего часа; более дальние подхватит
+     * следующая сверка, которая идёт заметно чаще.
+     */
+    public static final Duration INDEX_HORIZON = Duration.ofHours(1);
+
     private static final Logger logger = LoggerFactory.getLogger(DeadlineCheckService.class);
     private final TaskRepository taskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final DeadlineIndex index = new DeadlineIndex();
+    private volatile OffsetDateTime indexHorizon = OffsetDateTime.MIN;
+    // задачи, изменённые, пока reloadIndex читал дедлайны из БД
+    private final Set<UUID> changedDuringReload = ConcurrentHashMap.newKeySet();
+    private volatile boolean reloading;
+
+    private final Timer sweepTimer;
+    private final Counter sweepTransitions;
+    private final Counter indexTransitions;
+
+    public DeadlineCheckService(TaskRepository taskRepository, ApplicationEventPublisher eventPublisher,
+                                MeterRegistry meterRegistry) {
+        this.taskRepository = taskRepository;
+        this.eventPublisher = eventPublisher;
+
+        this.sweepTimer = Timer.builder("todo.deadline.sweep")
+                .description("Duration of the overdue sweep including the index reload")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sweepTransitions = transitions(meterRegistry, "sweep");
+        this.indexTransitions = transitions(meterRegistry, "index");
+        Gauge.builder("todo.deadline.index.size", index, DeadlineIndex::size)
+                .description("ACTIVE tasks tracked by the in-memory deadline index")
+                .register(meterRegistry);
+        // дедлайн уже прошёл, а flipDueTasks задачу ещё не перевёл: растёт, если UPDATE не успевают
+        Gauge.builder("todo.deadline.backlog", index, i -> i.countDue(OffsetDateTime.now()))
+                .description("Indexed tasks past their deadline that are not yet OVERDUE")
+                .register(meterRegistry);
+    }
+
+    private static Counter transitions(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("todo.deadline.transitions")
+                .description("Tasks moved to OVERDUE")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
 
-    @Scheduled(fixedRate = 300000)
+    /**
+     * Низкочастотная сверка: добивает всё, что могло пройти мимо индекса
+     * (другие узлы, прямые правки в БД, рестарт), и перезагружает индекс.
+     * <p>
+     * Сверку запускает каждый узел, но пачки он забирает с {@code SKIP LOCKED}
+     * ({@link TaskRepository#markOverdueChunk}): одновременные узлы делят бэклог между собой,
+     * каждая задача переводится один раз, а узел, пришедший к пустому бэклогу, делает
+     * один дешёвый запрос по индексу. Индекс дедлайнов у каждого узла свой и перезагружается всеми.
+     */
+    @Scheduled(fixedRate = 900000)
     public void checkOverdueTasks() {
-        OffsetDateTime now = OffsetDateTime.now();
-        Specification<Task> spec = Specification.where(TaskSpecifications.hasStatus(Status.ACTIVE))
-                .and(TaskSpecifications.deadlineBefore(now));
-
-        List<Task> overdueTasks = taskRepository.findAll(spec);
-        for (Task task : overdueTasks) {
-            task.setStatus(Status.OVERDUE);
-            task.setUpdatedAt(OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC));
-        }
+        sweepTimer.record(this::sweep);
+    }
 
-        if (!overdueTasks.isEmpty()) {
-            taskRepository.saveAll(overdueTasks);
-            logger.info("!!!!! !!!!! Updated {} tasks to OVERDUE status", overdueTasks.size());
+    private void sweep() {
+        OffsetDateTime now = now();
+        int total = markOverdueTasks(now);
+
+        if (total > 0) {
+            logger.info("!!!!! !!!!! Updated {} tasks to OVERDUE status", total);
         } else {
             logger.debug("!!!!! !!!!! No tasks found with overdue deadlines");
         }
+
+        reloadIndex(now);
+    }
+
+    public int markOverdueTasks(OffsetDateTime now) {
+        // set-based UPDATE пачками: ни одна сущность не грузится в память, а большой
+        // накопившийся бэклог (например, после простоя) не держит блокировки одной транзакцией.
+        // Неполная пачка — бэклог кончился или его хвост разбирают другие узлы
+        int total = 0;
+        int updated;
+        do {
+            updated = taskRepository.markOverdueChunk(now, SWEEP_CHUNK_SIZE);
+            total += updated;
+        } while (updated == SWEEP_CHUNK_SIZE);
+
+        if (total > 0) {
+            sweepTransitions.increment(total);
+            eventPublisher.publishEvent(TasksMarkedOverdueEvent.sweep(total, now));
+        }
+        return total;
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void flipDueTasks() {
+        OffsetDateTime now = now();
+        List<UUID> due;
+        while (!(due = index.pollDue(now, FLIP_BATCH_SIZE)).isEmpty()) {
+            int flipped = taskRepository.markOverdue(due, now);
+            logger.debug("Deadline index flipped {} of {} due tasks to OVERDUE", flipped, due.size());
+            if (flipped > 0) {
+                indexTransitions.increment(flipped);
+                eventPublisher.publishEvent(TasksMarkedOverdueEvent.of(due, flipped, now));
+            }
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (event.isTextOnly()) {
+            // статус и дедлайн не менялись — запись в индексе по-прежнему верна
+            return;
+        }
+        // до записи в индекс: иначе замена в reloadIndex может пройти между ними и затереть запись
+        if (reloading) {
+            changedDuringReload.add(event.getTaskId());
+        }
+        OffsetDateTime deadline = event.getDeadline();
+        if (event.getStatus() == Status.ACTIVE && deadline != null && deadline.isBefore(indexHorizon)) {
+            index.schedule(event.getTaskId(), deadline);
+        } else {
+            index.unschedule(event.getTaskId());
+        }
+    }
+
+    /**
+     * TIMESTAMPTZ хранит микросекунды: событие о переводе в OVERDUE должно нести
+     * ровно то значение update_date, которое запишет UPDATE.
+     */
+    private static OffsetDateTime now() {
+        return OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+    }
+
+    /**
+     * Перечитывает индекс из БД. События продолжают менять индекс и во время запроса:
+     * задачи, изменённые после его начала, запрос мог прочитать в старом виде, поэтому
+     * для них при замене остаётся запись, выставленная событием. Новый горизонт действует
+     * с начала перезагрузки, чтобы эти события его уже учитывали.
+     */
+    public synchronized void reloadIndex(OffsetDateTime now) {
+        OffsetDateTime horizon = now.plus(INDEX_HORIZON);
+        changedDuringReload.clear();
+        indexHorizon = horizon;
+        reloading = true;
+        List<TaskDeadlineView> upcoming;
+        try {
+            upcoming = taskRepository.findActiveDeadlinesBefore(horizon);
+            index.replace(upcoming, changedDuringReload);
+        } finally {
+            reloading = false;
+        }
+        logger.debug("Deadline index reloaded with {} tasks due before {}", upcoming.size(), horizon);
     }
 }
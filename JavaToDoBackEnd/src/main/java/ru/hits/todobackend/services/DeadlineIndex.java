@@ -0,0 +1,109 @@
+package ru.hits.todobackend.services;
+
+import ru.hits.todobackend.repository.TaskDeadlineView;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Min-heap ближайших дедлайнов ACTIVE-задач. Перенос и снятие дедлайна не ищут
+ * запись в куче: актуальный дедлайн хранится в map, а устаревшие записи кучи
+ * отбрасываются при извлечении.
+ */
+class DeadlineIndex {
+
+    private record Entry(long deadlineMillis, UUID taskId) {
+    }
+
+    private final PriorityQueue<Entry> heap =
+            new PriorityQueue<>((a, b) -> Long.compare(a.deadlineMillis, b.deadlineMillis));
+    private final Map<UUID, Long> deadlines = new HashMap<>();
+
+    synchronized void schedule(UUID taskId, OffsetDateTime deadline) {
+        schedule(taskId, ceilMillis(deadline));
+    }
+
+    private void schedule(UUID taskId, long millis) {
+        Long previous = deadlines.put(taskId, millis);
+        if (previous == null || previous != millis) {
+            heap.add(new Entry(millis, taskId));
+        }
+    }
+
+    synchronized void unschedule(UUID taskId) {
+        deadlines.remove(taskId);
+    }
+
+    synchronized List<UUID> pollDue(OffsetDateTime now, int max) {
+        long nowMillis = now.toInstant().toEpochMilli();
+        List<UUID> due = new ArrayList<>();
+        while (due.size() < max && !heap.isEmpty() && heap.peek().deadlineMillis <= nowMillis) {
+            Entry entry = heap.poll();
+            Long current = deadlines.get(entry.taskId);
+            if (current != null && current == entry.deadlineMillis) {
+                deadlines.remove(entry.taskId);
+                due.add(entry.taskId);
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Сколько задач с уже наступившим дедлайном ещё ждут извлечения.
+     */
+    synchronized int countDue(OffsetDateTime now) {
+        long nowMillis = now.toInstant().toEpochMilli();
+        int due = 0;
+        for (long deadline : deadlines.values()) {
+            if (deadline <= nowMillis) {
+                due++;
+            }
+        }
+        return due;
+    }
+
+    /**
+     * Заменяет содержимое индекса на {@code upcoming} под одним замком. Задачи из {@code changed}
+     * изменились уже после чтения {@code upcoming}: для них остаётся текущая запись индекса,
+     * которую успели выставить события.
+     */
+    synchronized void replace(List<TaskDeadlineView> upcoming, Set<UUID> changed) {
+        Map<UUID, Long> kept = new HashMap<>();
+        for (UUID taskId : changed) {
+            Long millis = deadlines.get(taskId);
+            if (millis != null) {
+                kept.put(taskId, millis);
+            }
+        }
+        heap.clear();
+        deadlines.clear();
+        kept.forEach(this::schedule);
+        for (TaskDeadlineView task : upcoming) {
+            if (!changed.contains(task.getId())) {
+                schedule(task.getId(), ceilMillis(task.getDeadline()));
+            }
+        }
+    }
+
+    synchronized int size() {
+        return deadlines.size();
+    }
+
+    /**
+     * Дедлайн округляется вверх до миллисекунды: запись не должна созреть раньше, чем задачу
+     * сможет перевести UPDATE с {@code deadline <= :now} по микросекундному времени, иначе он
+     * не изменит ни строки, а запись из индекса уже уйдёт.
+     */
+    private static long ceilMillis(OffsetDateTime deadline) {
+        Instant instant = deadline.toInstant();
+        long millis = instant.toEpochMilli();
+        return instant.getNano() % 1_000_000 == 0 ? millis : millis + 1;
+    }
+}
@@ -0,0 +1,168 @@
+package ru.hits.todobackend.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaDelete;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hits.todobackend.Specification.TaskSpecifications;
+import ru.hits.todobackend.dto.BulkResultDTO;
+import ru.hits.todobackend.dto.BulkUpdateTaskDTO;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TaskState;
+import ru.hits.todobackend.exception.BadRequestException;
+import ru.hits.todobackend.repository.TaskDeletionRepository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.ToIntFunction;
+
+/**
+ * Массовое изменение и удаление задач по тем же фильтрам, что у списка.
+ * <p>
+ * Работа идёт пачками по {@value #BULK_CHUNK_SIZE} задач в порядке id, каждая пачка — в своей
+ * транзакции: SELECT ... FOR UPDATE выбирает и блокирует строки под фильтром, затем один
+ * CriteriaUpdate/CriteriaDelete меняет их по списку id. Блокировки держатся только на время пачки,
+ * а прочитанное состояние уходит в {@link TaskChangedEvent} — кэш, лента, статистика, индекс
+ * дедлайнов и tombstone'ы синхронизации видят массовую операцию так же, как поштучную.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskBulkService {
+
+    public static final int BULK_CHUNK_SIZE = 1_000;
+
+    private final TaskDeletionRepository taskDeletionRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public BulkResultDTO updateTasks(Status status, Priority priority, OffsetDateTime deadlineFrom,
+                                     OffsetDateTime deadlineTo, BulkUpdateTaskDTO changes) {
+        if (changes == null || changes.getPriority() == null && changes.getDeadline() == null)
+            throw new BadRequestException("Nothing to update: set priority and/or deadline");
+        OffsetDateTime now = OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC);
+
+        return inChunks(filter(status, priority, deadlineFrom, deadlineTo), chunk -> {
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaUpdate<Task> update = cb.createCriteriaUpdate(Task.class);
+            Root<Task> root = update.from(Task.class);
+            if (changes.getPriority() != null)
+                update.set(root.<Priority>get("priority"), changes.getPriority());
+            if (changes.getDeadline() != null)
+                update.set(root.<OffsetDateTime>get("deadline"), changes.getDeadline());
+            update.set(root.<OffsetDateTime>get("updatedAt"), now);
+            update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), cb.literal(1L)));
+            update.where(root.get("id").in(chunk.keySet()));
+            int updated = entityManager.createQuery(update).executeUpdate();
+
+            chunk.forEach((id, previous) -> eventPublisher.publishEvent(TaskChangedEvent.updated(id, previous,
+                    new TaskState(previous.status(),
+                            changes.getPriority() != null ? changes.getPriority() : previous.priority(),
+                            changes.getDeadline() != null ? changes.getDeadline() : previous.deadline()))));
+            return updated;
+        });
+    }
+
+    public BulkResultDTO deleteTasks(Status status, Priority priority, OffsetDateTime deadlineFrom,
+                                     OffsetDateTime deadlineTo) {
+        OffsetDateTime now = OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC);
+
+        return inChunks(filter(status, priority, deadlineFrom, deadlineTo), chunk -> {
+            taskDeletionRepository.recordAll(chunk.keySet(), now);
+
+            CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+            CriteriaDelete<Task> delete = cb.createCriteriaDelete(Task.class);
+            Root<Task> root = delete.from(Task.class);
+            delete.where(root.get("id").in(chunk.keySet()));
+            int deleted = entityManager.createQuery(delete).executeUpdate();
+
+            chunk.forEach((id, previous) -> eventPublisher.publishEvent(TaskChangedEvent.deleted(id, previous)));
+            return deleted;
+        });
+    }
+
+    // без фильтра массовая операция задела бы всю таблицу — такое скорее ошибка клиента
+    private static Specification<Task> filter(Status status, Priority priority,
+                                              OffsetDateTime deadlineFrom, OffsetDateTime deadlineTo) {
+        if (status == null && priority == null && deadlineFrom == null && deadlineTo == null)
+            throw new BadRequestException("At least one filter is required for a bulk operation");
+        return TaskSpecifications.matchesFilter(status, priority, deadlineFrom, deadlineTo);
+    }
+
+    private BulkResultDTO inChunks(Specification<Task> filter, ToIntFunction<Map<UUID, TaskState>> action) {
+        BulkResultDTO result = new BulkResultDTO();
+        UUID after = null;
+        while (true) {
+            UUID from = after;
+            Chunk chunk = transactionTemplate.execute(tx -> {
+                Map<UUID, TaskState> locked = lockChunk(filter, from);
+                if (locked.isEmpty()) {
+                    return null;
+                }
+                List<UUID> ids = new ArrayList<>(locked.keySet());
+                return new Chunk(ids.get(ids.size() - 1), locked.size(), action.applyAsInt(locked));
+            });
+            if (chunk == null) {
+                return result;
+            }
+            result.setAffected(result.getAffected() + chunk.affected());
+            result.setChunks(result.getChunks() + 1);
+            if (chunk.size() < BULK_CHUNK_SIZE) {
+                return result;
+            }
+            after = chunk.lastId();
+        }
+    }
+
+    /**
+     * Следующие {@value #BULK_CHUNK_SIZE} задач под фильтром после {@code after} с их состоянием,
+     * заблокированные до конца транзакции.
+     */
+    private Map<UUID, TaskState> lockChunk(Specification<Task> filter, UUID after) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        query.multiselect(root.get("id"), root.get("status"), root.get("priority"), root.get("deadline"));
+
+        List<Predicate> predicates = new ArrayList<>();
+        Predicate predicate = filter.toPredicate(root, query, cb);
+        if (predicate != null) predicates.add(predicate);
+        if (after != null) predicates.add(cb.greaterThan(root.get("id"), after));
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(root.get("id")));
+
+        Map<UUID, TaskState> chunk = new LinkedHashMap<>();
+        for (Tuple row : entityManager.createQuery(query)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .setMaxResults(BULK_CHUNK_SIZE)
+                .getResultList()) {
+            chunk.put(row.get(0, UUID.class), new TaskState(
+                    row.get(1, Status.class), row.get(2, Priority.class), row.get(3, OffsetDateTime.class)));
+        }
+        return chunk;
+    }
+
+    private record Chunk(UUID lastId, int size, int affected) {
+    }
+}
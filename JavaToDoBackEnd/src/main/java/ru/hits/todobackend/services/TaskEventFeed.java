@@ -0,0 +1,335 @@
+package ru.hits.todobackend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.hits.todobackend.dto.TaskEventDTO;
+import ru.hits.todobackend.events.TaskChangeType;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TasksMarkedOverdueEvent;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Лента изменений задач для {@code GET /api/tasks/events} (Server-Sent Events).
+ * <p>
+ * Каждое событие один раз сериализуется в JSON и кладётся в общее кольцо последних
+ * {@code replaySize} событий с возрастающим номером. Подписчик хранит только номер последнего
+ * отправленного ему события, поэтому его буфер — это отрезок кольца между этим номером и головой:
+ * простаивающий подписчик стоит один объект и асинхронный запрос без потока.
+ * Подписчик, отставший больше чем на {@code maxLag} событий, отключается; клиент переподключится
+ * с {@code Last-Event-ID} и дочитает пропущенное из кольца, а если оно уже перезаписано
+ * (или id из прошлого запуска) — получит событие {@value #RESET_EVENT} и должен перечитать список целиком.
+ * <p>
+ * Отправка идёт не в потоке, опубликовавшем событие, а в отдельной задаче на подписчика,
+ * поэтому медленный клиент задерживает только себя.
+ */
+@Service
+public class TaskEventFeed {
+
+    public static final String RESET_EVENT = "reset";
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskEventFeed.class);
+
+    private final ObjectMapper objectMapper;
+    private final Executor executor;
+    private final long timeoutMillis;
+    private final int maxLag;
+
+    // id событий вида "<epoch>-<номер>": номера прошлого запуска не спутать с текущими
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final Object lock = new Object();
+    private final FeedEvent[] ring;
+    private long head;
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public TaskEventFeed(ObjectMapper objectMapper,
+                         @Value("${todo.task-events.replay-size:1024}") int replaySize,
+                         @Value("${todo.task-events.max-lag:256}") int maxLag,
+                         @Value("${todo.task-events.timeout:1800000}") long timeoutMillis) {
+        this(objectMapper, replaySize, maxLag, timeoutMillis, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public TaskEventFeed(ObjectMapper objectMapper, int replaySize, int maxLag, long timeoutMillis, Executor executor) {
+        this.objectMapper = objectMapper;
+        this.ring = new FeedEvent[replaySize];
+        this.maxLag = Math.min(maxLag, replaySize);
+        this.timeoutMillis = timeoutMillis;
+        this.executor = executor;
+    }
+
+    public SseEmitter subscribe(String lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        subscribe(emitter, lastEventId);
+        return emitter;
+    }
+
+    /**
+     * Подключает уже созданный эмиттер. Без {@code lastEventId} подписчик получает только
+     * новые события; с ним — сначала всё, что было после этого события.
+     */
+    public void subscribe(SseEmitter emitter, String lastEventId) {
+        Subscriber subscriber = new Subscriber(emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+        // до первой записи Spring не отправляет клиенту даже заголовки ответа
+        subscriber.send(SseEmitter.event().comment(""));
+
+        // курсор и регистрация под тем же замком, что и публикация: событие, добавленное
+        // после вычисления курсора, обязательно увидит этого подписчика
+        synchronized (lock) {
+            long resumeFrom = resumePoint(lastEventId);
+            subscriber.reset = resumeFrom < 0;
+            subscriber.cursor = subscriber.reset ? head : resumeFrom;
+            subscribers.add(subscriber);
+        }
+        subscriber.signal();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        TaskEventDTO dto = new TaskEventDTO();
+        dto.setType(event.getType());
+        dto.setTaskId(event.getTaskId());
+        dto.setStatus(event.getStatus());
+        dto.setDeadline(event.getDeadline());
+        publish(dto);
+    }
+
+    @EventListener
+    public void onTasksMarkedOverdue(TasksMarkedOverdueEvent event) {
+        TaskEventDTO dto = new TaskEventDTO();
+        dto.setType(TaskChangeType.OVERDUE);
+        dto.setTaskIds(event.getTaskIds());
+        dto.setCount(event.getCount());
+        publish(dto);
+    }
+
+    public void publish(TaskEventDTO dto) {
+        String name = dto.getType().name().toLowerCase(Locale.ROOT);
+        String data = serialize(dto);
+        FeedEvent event;
+        synchronized (lock) {
+            event = new FeedEvent(++head, name, data);
+            ring[slot(event.seq())] = event;
+        }
+        for (Subscriber subscriber : subscribers) {
+            if (event.seq() - subscriber.cursor > maxLag) {
+                evict(subscriber);
+            } else {
+                subscriber.signal();
+            }
+        }
+    }
+
+    /**
+     * Комментарий в простаивающие соединения: не даёт прокси закрыть их по таймауту
+     * и выявляет ушедших клиентов, которых иначе заметили бы только на следующем событии.
+     */
+    @Scheduled(fixedDelayString = "${todo.task-events.heartbeat-interval:15000}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeat();
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @PreDestroy
+    public void close() {
+        for (Subscriber subscriber : subscribers) {
+            remove(subscriber);
+            subscriber.emitter.complete();
+        }
+        if (executor instanceof ExecutorService service) {
+            service.shutdownNow();
+        }
+    }
+
+    /**
+     * Номер события, после которого продолжить, или -1, если продолжить нельзя.
+     */
+    private long resumePoint(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return head;
+        }
+        int dash = lastEventId.lastIndexOf('-');
+        if (dash < 0 || !lastEventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        long seq;
+        try {
+            seq = Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+        return seq >= 0 && seq <= head && head - seq <= maxLag ? seq : -1;
+    }
+
+    /**
+     * События после {@code cursor} или null, если часть из них уже перезаписана в кольце.
+     */
+    private List<FeedEvent> eventsAfter(long cursor) {
+        synchronized (lock) {
+            if (head - cursor > ring.length) {
+                return null;
+            }
+            List<FeedEvent> events = new ArrayList<>((int) (head - cursor));
+            for (long seq = cursor + 1; seq <= head; seq++) {
+                events.add(ring[slot(seq)]);
+            }
+            return events;
+        }
+    }
+
+    private long head() {
+        synchronized (lock) {
+            return head;
+        }
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % ring.length);
+    }
+
+    private String eventId(long seq) {
+        return epoch + "-" + seq;
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (remove(subscriber)) {
+            evictions.incrementAndGet();
+            logger.debug("Evicted slow SSE subscriber at event {}", subscriber.cursor);
+            subscriber.emitter.complete();
+        }
+    }
+
+    private boolean remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        return subscribers.remove(subscriber);
+    }
+
+    private String serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize task event", e);
+        }
+    }
+
+    private record FeedEvent(long seq, String name, String data) {
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile long cursor;
+        private volatile boolean reset;
+        private volatile boolean closed;
+
+        Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void signal() {
+            if (!closed && scheduled.compareAndSet(false, true) && !execute(this::drain)) {
+                scheduled.set(false);
+            }
+        }
+
+        void heartbeat() {
+            if (!closed && !scheduled.get()) {
+                execute(() -> send(SseEmitter.event().comment("")));
+            }
+        }
+
+        private void drain() {
+            try {
+                if (reset) {
+                    reset = false;
+                    send(SseEmitter.event().id(eventId(cursor)).name(RESET_EVENT).data("{}"));
+                }
+                while (!closed && sendPending()) {
+                    // пока отправляли, могли прийти новые события
+                }
+            } finally {
+                scheduled.set(false);
+            }
+            // событие могло прийти между последней проверкой и сбросом флага
+            if (!closed && head() > cursor) {
+                signal();
+            }
+        }
+
+        /**
+         * Отправляет всё накопившееся; false, если отправлять нечего или подписчик отключён.
+         */
+        private boolean sendPending() {
+            List<FeedEvent> events = eventsAfter(cursor);
+            if (events == null) {
+                // кольцо ушло вперёд, пока клиент читал
+                evict(this);
+                return false;
+            }
+            for (FeedEvent event : events) {
+                if (!send(SseEmitter.event().id(eventId(event.seq())).name(event.name()).data(event.data()))) {
+                    return false;
+                }
+                cursor = event.seq();
+            }
+            return !events.isEmpty();
+        }
+
+        private boolean send(SseEmitter.SseEventBuilder event) {
+            try {
+                emitter.send(event);
+                return true;
+            } catch (IOException | IllegalStateException e) {
+                // клиент ушёл или эмиттер уже завершён
+                remove(this);
+                return false;
+            }
+        }
+
+        private boolean execute(Runnable task) {
+            try {
+                executor.execute(task);
+                return true;
+            } catch (RejectedExecutionException e) {
+                // приложение останавливается
+                return false;
+            }
+        }
+    }
+}
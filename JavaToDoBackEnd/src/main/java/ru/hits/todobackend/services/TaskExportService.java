@@ -0,0 +1,108 @@
+package ru.hits.todobackend.services;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hits.todobackend.Specification.TaskSpecifications;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.ExportFormat;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Потоковая выгрузка задач: строки читаются серверным курсором порциями по
+ * {@link #FETCH_SIZE} и сразу пишутся в ответ, так что память не растёт с числом строк.
+ */
+@Service
+@RequiredArgsConstructor
+public class TaskExportService {
+
+    static final int FETCH_SIZE = 500;
+
+    private static final String CSV_HEADER = "id,title,description,status,priority,deadline,createdAt,updatedAt";
+
+    private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void export(Status status, Priority priority, OffsetDateTime deadlineFrom, OffsetDateTime deadlineTo,
+                       ExportFormat format, OutputStream out) throws IOException {
+        Specification<Task> spec = Specification
+                .where(TaskSpecifications.hasStatus(status))
+                .and(TaskSpecifications.hasPriority(priority))
+                .and(TaskSpecifications.deadlineBetween(deadlineFrom, deadlineTo));
+
+        // строки сразу в DTO: сущности не копятся в persistence context, detach не нужен
+        try (Stream<TaskDTO> rows = taskService.createDTOQuery(spec, Sort.unsorted())
+                .setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+                .getResultStream()) {
+            switch (format) {
+                case NDJSON -> writeNdjson(rows.iterator(), out);
+                case CSV -> writeCsv(rows.iterator(), out);
+            }
+        }
+    }
+
+    private void writeNdjson(Iterator<TaskDTO> rows, OutputStream out) throws IOException {
+        try (SequenceWriter writer = objectMapper.writerFor(TaskDTO.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .writeValues(out)) {
+            while (rows.hasNext()) {
+                writer.write(rows.next());
+            }
+        }
+    }
+
+    private void writeCsv(Iterator<TaskDTO> rows, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (rows.hasNext()) {
+            TaskDTO task = rows.next();
+            writer.write(String.valueOf(task.getId()));
+            writer.write(',');
+            writer.write(csvField(task.getTitle()));
+            writer.write(',');
+            writer.write(csvField(task.getDescription()));
+            writer.write(',');
+            writer.write(csvField(task.getStatus()));
+            writer.write(',');
+            writer.write(csvField(task.getPriority()));
+            writer.write(',');
+            writer.write(csvField(task.getDeadline()));
+            writer.write(',');
+            writer.write(csvField(task.getCreatedAt()));
+            writer.write(',');
+            writer.write(csvField(task.getUpdatedAt()));
+            writer.write('\n');
+        }
+        writer.flush();
+    }
+
+    static String csvField(Object value) {
+        if (value == null) return "";
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            return text;
+        }
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+}
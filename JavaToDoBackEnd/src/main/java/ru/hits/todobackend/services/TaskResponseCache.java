@@ -0,0 +1,306 @@
+package ru.hits.todobackend.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hits.todobackend.config.ReplicaRoutingDataSource;
+import ru.hits.todobackend.dto.TaskCacheStatsDTO;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.events.TaskChangeType;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TasksMarkedOverdueEvent;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Кэш уже сериализованного JSON задачи для {@code GET /api/tasks/{id}}.
+ * <p>
+ * Байты лежат вне кучи, в direct {@link ByteBuffer}-слэбах, нарезанных на блоки
+ * фиксированного размера; запись занимает столько блоков, сколько нужно, не обязательно подряд.
+ * Кэш разбит на сегменты по хэшу id, у каждого свой замок, свои слэбы и свой LRU;
+ * при нехватке места сегмент вытесняет самые давно читанные записи.
+ * <p>
+ * Инвалидация идёт по событиям {@code TaskService} и {@code DeadlineCheckService}.
+ * Чтобы промах, прочитавший из БД старую версию, не положил её в кэш уже после
+ * инвалидации, запись принимается только если с момента {@link Segment#stamp()} сегмент
+ * не инвалидировался.
+ * <p>
+ * События видит только тот экземпляр, который изменил задачу, поэтому запись живёт
+ * не дольше {@code todo.task-cache.ttl} миллисекунд: при нескольких узлах остальные
+ * отдают старый JSON и старый ETag не дольше этого срока.
+ */
+@Service
+public class TaskResponseCache {
+
+    private static final int SEGMENTS = 16;
+    private static final int MAX_SLAB_SIZE = 1 << 20;
+
+    private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    private final Segment[] segments;
+    private final long capacityBytes;
+
+    public TaskResponseCache(TaskService taskService,
+                             ObjectMapper objectMapper,
+                             @Value("${todo.task-cache.capacity-bytes:67108864}") long capacityBytes,
+                             @Value("${todo.task-cache.block-size:256}") int blockSize,
+                             @Value("${todo.task-cache.ttl:5000}") long ttlMillis) {
+        this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        this.capacityBytes = capacityBytes;
+        this.segments = new Segment[SEGMENTS];
+        int blocksPerSegment = (int) Math.min(Integer.MAX_VALUE, capacityBytes / SEGMENTS / blockSize);
+        long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(blocksPerSegment, blockSize, ttlNanos);
+        }
+    }
+
+    /**
+     * Готовое тело ответа и версия задачи для ETag.
+     */
+    public record TaskJson(byte[] body, long version) {
+    }
+
+    /**
+     * JSON задачи: при попадании — копия байтов из off-heap без JPA и Jackson,
+     * при промахе — загрузка через {@link TaskService#getTaskById} с основной БД, сериализация и запись в кэш.
+     */
+    public TaskJson getTaskJson(UUID id) {
+        Segment segment = segmentFor(id);
+        TaskJson cached = segment.get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        long stamp = segment.stamp();
+        // запись живёт до следующей инвалидации, а та уже могла пройти: версию с отстающей
+        // реплики кэш держал бы дольше, чем она отстаёт
+        TaskDTO task = ReplicaRoutingDataSource.onPrimary(() -> taskService.getTaskById(id));
+        TaskJson json = new TaskJson(serialize(task), task.getVersion() != null ? task.getVersion() : 0L);
+        segment.put(id, json, stamp);
+        return json;
+    }
+
+    public void invalidate(UUID id) {
+        segmentFor(id).invalidate(id);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        // только что созданной задачи в кэше быть не может
+        if (event.getType() != TaskChangeType.CREATED) {
+            invalidate(event.getTaskId());
+        }
+    }
+
+    @EventListener
+    public void onTasksMarkedOverdue(TasksMarkedOverdueEvent event) {
+        if (event.isSweep()) {
+            invalidateAll();
+        } else {
+            event.getTaskIds().forEach(this::invalidate);
+        }
+    }
+
+    public TaskCacheStatsDTO getStats() {
+        TaskCacheStatsDTO stats = new TaskCacheStatsDTO();
+        stats.setCapacityBytes(capacityBytes);
+        for (Segment segment : segments) {
+            segment.addTo(stats);
+        }
+        return stats;
+    }
+
+    private Segment segmentFor(UUID id) {
+        return segments[Math.floorMod(id.hashCode(), SEGMENTS)];
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize task", e);
+        }
+    }
+
+    private record Entry(int[] blocks, int length, long version, long expiresAt) {
+    }
+
+    private static final class Segment {
+
+        private final int blockSize;
+        private final int totalBlocks;
+        private final long ttlNanos;
+        private final int blocksPerSlab;
+        private final List<ByteBuffer> slabs = new ArrayList<>();
+        private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+        // стек свободных блоков; слэбы выделяются лениво, когда стек пуст
+        private int[] freeBlocks = new int[0];
+        private int freeCount;
+        private int allocatedBlocks;
+        private long usedBytes;
+        private long generation;
+
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long invalidations;
+        private long expirations;
+        private long rejections;
+
+        Segment(int totalBlocks, int blockSize, long ttlNanos) {
+            this.blockSize = blockSize;
+            this.totalBlocks = totalBlocks;
+            this.ttlNanos = ttlNanos;
+            this.blocksPerSlab = Math.max(1, Math.min(totalBlocks, MAX_SLAB_SIZE / blockSize));
+        }
+
+        synchronized long stamp() {
+            return generation;
+        }
+
+        synchronized TaskJson get(UUID id) {
+            Entry entry = entries.get(id);
+            if (entry != null && System.nanoTime() - entry.expiresAt() >= 0) {
+                entries.remove(id);
+                release(entry);
+                expirations++;
+                entry = null;
+            }
+            if (entry == null) {
+                misses++;
+                return null;
+            }
+            hits++;
+
+            byte[] out = new byte[entry.length()];
+            int copied = 0;
+            for (int block : entry.blocks()) {
+                int n = Math.min(blockSize, out.length - copied);
+                slabs.get(block / blocksPerSlab).get(offset(block), out, copied, n);
+                copied += n;
+            }
+            return new TaskJson(out, entry.version());
+        }
+
+        synchronized void put(UUID id, TaskJson json, long stamp) {
+            byte[] value = json.body();
+            if (stamp != generation) {
+                // между чтением из БД и записью задачу успели изменить
+                return;
+            }
+            int needed = (value.length + blockSize - 1) / blockSize;
+            if (needed > totalBlocks) {
+                rejections++;
+                return;
+            }
+
+            release(entries.remove(id));
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (availableBlocks() < needed) {
+                release(eldest.next());
+                eldest.remove();
+                evictions++;
+            }
+
+            int[] blocks = new int[needed];
+            int copied = 0;
+            for (int i = 0; i < needed; i++) {
+                int block = allocateBlock();
+                int n = Math.min(blockSize, value.length - copied);
+                slabs.get(block / blocksPerSlab).put(offset(block), value, copied, n);
+                copied += n;
+                blocks[i] = block;
+            }
+            entries.put(id, new Entry(blocks, value.length, json.version(), System.nanoTime() + ttlNanos));
+            usedBytes += value.length;
+        }
+
+        synchronized void invalidate(UUID id) {
+            generation++;
+            Entry entry = entries.remove(id);
+            if (entry != null) {
+                release(entry);
+                invalidations++;
+            }
+        }
+
+        synchronized void clear() {
+            generation++;
+            invalidations += entries.size();
+            for (Map.Entry<UUID, Entry> entry : entries.entrySet()) {
+                release(entry.getValue());
+            }
+            entries.clear();
+        }
+
+        synchronized void addTo(TaskCacheStatsDTO stats) {
+            stats.setHits(stats.getHits() + hits);
+            stats.setMisses(stats.getMisses() + misses);
+            stats.setEvictions(stats.getEvictions() + evictions);
+            stats.setInvalidations(stats.getInvalidations() + invalidations);
+            stats.setExpirations(stats.getExpirations() + expirations);
+            stats.setRejections(stats.getRejections() + rejections);
+            stats.setEntries(stats.getEntries() + entries.size());
+            stats.setUsedBytes(stats.getUsedBytes() + usedBytes);
+            stats.setAllocatedBytes(stats.getAllocatedBytes() + (long) allocatedBlocks * blockSize);
+        }
+
+        private int availableBlocks() {
+            return freeCount + (totalBlocks - allocatedBlocks);
+        }
+
+        private int offset(int block) {
+            return (block % blocksPerSlab) * blockSize;
+        }
+
+        private int allocateBlock() {
+            if (freeCount == 0) {
+                allocateSlab();
+            }
+            return freeBlocks[--freeCount];
+        }
+
+        private void allocateSlab() {
+            int blocks = Math.min(blocksPerSlab, totalBlocks - allocatedBlocks);
+            slabs.add(ByteBuffer.allocateDirect(blocks * blockSize));
+            if (freeBlocks.length < allocatedBlocks + blocks) {
+                freeBlocks = Arrays.copyOf(freeBlocks, allocatedBlocks + blocks);
+            }
+            // в обратном порядке, чтобы блоки нового слэба выдавались с начала
+            for (int i = allocatedBlocks + blocks - 1; i >= allocatedBlocks; i--) {
+                freeBlocks[freeCount++] = i;
+            }
+            allocatedBlocks += blocks;
+        }
+
+        private void release(Entry entry) {
+            if (entry == null) {
+                return;
+            }
+            for (int block : entry.blocks()) {
+                freeBlocks[freeCount++] = block;
+            }
+            usedBytes -= entry.length();
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package ru.hits.todobackend.services;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.query.criteria.HibernateCriteriaBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hits.todobackend.Specification.SearchCursor;
+import ru.hits.todobackend.config.TaskSearchFunctions;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.dto.TaskPageDTO;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangeType;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.repository.TaskRepository;
+import ru.hits.todobackend.repository.TaskTextView;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Полнотекстовый поиск по заголовку и описанию (параметр {@code q}).
+ * <p>
+ * На PostgreSQL — по колонке {@code search_vector} с GIN-индексом через функции
+ * {@link TaskSearchFunctions}: и фильтр, и ранг считает БД. На остальных БД (H2 в тестах) —
+ * по {@link TaskTextIndex} в памяти, который заполняется при старте и обновляется событиями
+ * {@code TaskService}; строки, записанные в обход приложения, он не увидит до рестарта.
+ * Изменённые задачи индекс перечитывает не в момент записи, а одним запросом перед ближайшим поиском:
+ * запись не платит лишним SELECT'ом, а серия правок между поисками стоит одно чтение.
+ */
+@Service
+public class TaskSearchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSearchService.class);
+
+    private static final String[] DTO_FIELDS =
+            {"id", "title", "description", "status", "priority", "deadline", "createdAt", "updatedAt", "version"};
+
+    private final TaskRepository taskRepository;
+    private final boolean databaseSearch;
+    private final TaskTextIndex index = new TaskTextIndex();
+    private final Set<UUID> stale = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public TaskSearchService(TaskRepository taskRepository, EntityManagerFactory entityManagerFactory) {
+        this.taskRepository = taskRepository;
+        this.databaseSearch = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect() instanceof PostgreSQLDialect;
+    }
+
+    public boolean isDatabaseSearch() {
+        return databaseSearch;
+    }
+
+    /**
+     * Фильтр «задача подходит под {@code q}» для сочетания с остальными спецификациями.
+     */
+    public Specification<Task> matching(String q) {
+        return (root, query, cb) -> {
+            if (q == null) return null;
+            if (databaseSearch)
+                return cb.isTrue(cb.function(TaskSearchFunctions.MATCH, Boolean.class, bound(cb, q)));
+
+            Map<UUID, Float> ranks = refreshedIndex().search(q);
+            return ranks.isEmpty() ? cb.disjunction() : root.get("id").in(ranks.keySet());
+        };
+    }
+
+    /**
+     * Страница задач, подходящих под {@code q} и {@code filters}, по убыванию релевантности,
+     * при равной — по id. Постраничность keyset по паре (ранг, id).
+     */
+    public TaskPageDTO search(String q, Specification<Task> filters, int pageSize, String after) {
+        SearchCursor cursor = after != null ? SearchCursor.decode(after, q) : null;
+        List<Ranked> ranked = databaseSearch
+                ? searchDatabase(q, filters, pageSize + 1, cursor)
+                : searchIndex(q, filters, pageSize + 1, cursor);
+
+        List<TaskDTO> items = new ArrayList<>(Math.min(ranked.size(), pageSize));
+        for (Ranked task : ranked.subList(0, Math.min(ranked.size(), pageSize))) {
+            items.add(task.task());
+        }
+        String nextCursor = null;
+        if (ranked.size() > pageSize) {
+            Ranked last = ranked.get(pageSize - 1);
+            nextCursor = SearchCursor.after(q, last.rank(), last.task().getId()).encode();
+        }
+        return new TaskPageDTO(items, nextCursor);
+    }
+
+    private List<Ranked> searchDatabase(String q, Specification<Task> filters, int limit, SearchCursor cursor) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        Expression<Float> rank = cb.function(TaskSearchFunctions.RANK, Float.class, bound(cb, q));
+        query.multiselect(dtoSelection(root, rank));
+
+        List<Predicate> predicates = new ArrayList<>();
+        predicates.add(matching(q).toPredicate(root, query, cb));
+        Predicate filter = filters.toPredicate(root, query, cb);
+        if (filter != null) predicates.add(filter);
+        if (cursor != null) {
+            Path<UUID> id = root.get("id");
+            predicates.add(cb.or(
+                    cb.lessThan(rank, cursor.getRank()),
+                    cb.and(cb.equal(rank, cursor.getRank()), cb.greaterThan(id, cursor.getId()))));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.desc(rank), cb.asc(root.get("id")));
+
+        List<Ranked> ranked = new ArrayList<>();
+        for (Tuple row : entityManager.createQuery(query).setMaxResults(limit).getResultList()) {
+            ranked.add(new Ranked(toDTO(row), row.get(DTO_FIELDS.length, Float.class)));
+        }
+        return ranked;
+    }
+
+    private List<Ranked> searchIndex(String q, Specification<Task> filters, int limit, SearchCursor cursor) {
+        Map<UUID, Float> ranks = refreshedIndex().search(q);
+        if (ranks.isEmpty()) {
+            return List.of();
+        }
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Task> root = query.from(Task.class);
+        query.multiselect(dtoSelection(root, null));
+        Predicate filter = filters.toPredicate(root, query, cb);
+        Predicate byId = root.get("id").in(ranks.keySet());
+        query.where(filter != null ? cb.and(byId, filter) : byId);
+
+        return entityManager.createQuery(query).getResultList().stream()
+                .map(row -> new Ranked(toDTO(row), ranks.get(row.get(0, UUID.class))))
+                .filter(task -> cursor == null || cursor.isBefore(task.rank(), task.task().getId()))
+                .sorted(Ranked.ORDER)
+                .limit(limit)
+                .toList();
+    }
+
+    // cb.literal встроил бы текст запроса в SQL: у каждого q был бы свой план
+    private static Expression<String> bound(CriteriaBuilder cb, String q) {
+        return ((HibernateCriteriaBuilder) cb).value(q);
+    }
+
+    private static List<Selection<?>> dtoSelection(Root<Task> root, Expression<Float> rank) {
+        List<Selection<?>> selection = new ArrayList<>();
+        for (String field : DTO_FIELDS) {
+            selection.add(root.get(field));
+        }
+        if (rank != null) {
+            selection.add(rank);
+        }
+        return selection;
+    }
+
+    private static TaskDTO toDTO(Tuple row) {
+        return new TaskDTO(row.get(0, UUID.class), row.get(1, String.class), row.get(2, String.class),
+                row.get(3, Status.class), row.get(4, Priority.class), row.get(5, OffsetDateTime.class),
+                row.get(6, OffsetDateTime.class), row.get(7, OffsetDateTime.class), row.get(8, Long.class));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        if (databaseSearch) {
+            return;
+        }
+        index.clear();
+        List<TaskTextView> tasks = taskRepository.findAllText();
+        for (TaskTextView task : tasks) {
+            index.put(task.getId(), task.getTitle(), task.getDescription());
+        }
+        logger.info("No PostgreSQL full-text search, built in-memory index of {} tasks", tasks.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        if (databaseSearch || event.getType() == TaskChangeType.TOGGLED) {
+            // search_vector БД пересчитывает сама, а переключение текст не меняет
+            return;
+        }
+        if (event.getType() == TaskChangeType.DELETED) {
+            stale.remove(event.getTaskId());
+            index.remove(event.getTaskId());
+            return;
+        }
+        stale.add(event.getTaskId());
+    }
+
+    /**
+     * Индекс с дочитанными изменениями: тексты всех задач, изменённых после прошлого поиска, одним запросом.
+     */
+    private TaskTextIndex refreshedIndex() {
+        if (stale.isEmpty()) {
+            return index;
+        }
+        List<UUID> ids = new ArrayList<>(stale);
+        stale.removeAll(ids);
+        Set<UUID> missing = new HashSet<>(ids);
+        for (TaskTextView task : taskRepository.findTextByIds(ids)) {
+            index.put(task.getId(), task.getTitle(), task.getDescription());
+            missing.remove(task.getId());
+        }
+        missing.forEach(index::remove);
+        return index;
+    }
+
+    private record Ranked(TaskDTO task, float rank) {
+
+        // тот же порядок, что ORDER BY rank DESC, id в searchDatabase
+        static final Comparator<Ranked> ORDER = (a, b) -> {
+            int byRank = Float.compare(b.rank, a.rank);
+            return byRank != 0 ? byRank : a.task.getId().compareTo(b.task.getId());
+        };
+    }
+}
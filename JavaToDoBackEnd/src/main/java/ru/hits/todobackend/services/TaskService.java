@@ -2,175 +2,303 @@ package ru.hits.todobackend.services;
 
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
-import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.CriteriaUpdate;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hits.todobackend.Specification.TaskCursor;
 import ru.hits.todobackend.Specification.TaskSpecifications;
+import ru.hits.todobackend.dto.BatchCreateResultDTO;
 import ru.hits.todobackend.dto.CreateTaskDTO;
 import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.dto.TaskPageDTO;
 import ru.hits.todobackend.dto.UpdateTaskDTO;
 import ru.hits.todobackend.entities.Task;
 import ru.hits.todobackend.entities.enum_entities.Priority;
 import ru.hits.todobackend.entities.enum_entities.SortDirection;
 import ru.hits.todobackend.entities.enum_entities.SortField;
 import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TaskState;
 import ru.hits.todobackend.exception.BadRequestException;
 import ru.hits.todobackend.exception.NotFoundException;
+import ru.hits.todobackend.exception.PreconditionFailedException;
+import ru.hits.todobackend.repository.TaskDeletionRepository;
 import ru.hits.todobackend.repository.TaskRepository;
+import ru.hits.todobackend.repository.TaskStateView;
 
-import java.time.LocalDate;
 import java.time.OffsetDateTime;
-import java.time.ZoneId;
 import java.time.ZoneOffset;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class TaskService {
 
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BATCH_SIZE = 1000;
+
     private final TaskRepository taskRepository;
+    private final TaskDeletionRepository taskDeletionRepository;
+    private final TaskSearchService taskSearchService;
+    private final ApplicationEventPublisher eventPublisher;
+    // элементы пакета не проходят через @Valid контроллера, их проверяет сервис
+    private final Validator validator;
 
     @PersistenceContext
     private EntityManager entityManager;
 
-    private static class TitleMacroResult {
-        String cleanedTitle;
-        Priority macroPriority;
-        OffsetDateTime macroDeadline;
-
-        TitleMacroResult(String cleanedTitle, Priority macroPriority, OffsetDateTime macroDeadline) {
-            this.cleanedTitle = cleanedTitle;
-            this.macroPriority = macroPriority;
-            this.macroDeadline = macroDeadline;
-        }
+    private TitleMacroParser.Result processTitleMacros(String title) {
+        // Уязвимость: XSS — title сохраняется без очистки
+        return TitleMacroParser.parse(title);
     }
 
-    private TitleMacroResult processTitleMacros(String title) {
-        String cleanedTitle = title;
-        Priority macroPriority = null;
-        OffsetDateTime macroDeadline = null;
-
-        // Уязвимость: XSS — отсутствие очистки title
-        if (title != null && title.toLowerCase().contains("<script")) {
-            cleanedTitle = title; // без фильтрации
-        }
+    public TaskDTO createTask(CreateTaskDTO taskDTO) {
+        if (taskDTO == null) throw new BadRequestException("Task DTO is null");
 
-        Pattern priorityPattern = Pattern.compile("!1|!2|!3|!4");
-        Pattern deadlinePattern = Pattern.compile("!before\\s+(\\d{2}[.-]\\d{2}[.-]\\d{4})");
+        Task saved = taskRepository.save(buildTask(taskDTO));
+        eventPublisher.publishEvent(TaskChangedEvent.created(saved));
+        return convertToDTO(saved);
+    }
 
-        Matcher priorityMatcher = priorityPattern.matcher(cleanedTitle);
-        if (priorityMatcher.find()) {
-            switch (priorityMatcher.group()) {
-                case "!1": macroPriority = Priority.CRITICAL; break;
-                case "!2": macroPriority = Priority.HIGH; break;
-                case "!3": macroPriority = Priority.MEDIUM; break;
-                case "!4": macroPriority = Priority.LOW; break;
+    @Transactional
+    public List<BatchCreateResultDTO> createTasks(List<CreateTaskDTO> taskDTOs) {
+        if (taskDTOs == null || taskDTOs.isEmpty())
+            throw new BadRequestException("Batch is empty");
+        if (taskDTOs.size() > MAX_BATCH_SIZE)
+            throw new BadRequestException("Batch size must not exceed " + MAX_BATCH_SIZE);
+
+        List<BatchCreateResultDTO> results = new ArrayList<>(taskDTOs.size());
+        List<Task> tasks = new ArrayList<>(taskDTOs.size());
+        List<Integer> taskIndexes = new ArrayList<>(taskDTOs.size());
+
+        for (int i = 0; i < taskDTOs.size(); i++) {
+            CreateTaskDTO taskDTO = taskDTOs.get(i);
+            results.add(null);
+            if (taskDTO == null) {
+                results.set(i, BatchCreateResultDTO.rejected(i, "Task DTO is null"));
+                continue;
+            }
+            Set<ConstraintViolation<CreateTaskDTO>> violations = validator.validate(taskDTO);
+            if (!violations.isEmpty()) {
+                results.set(i, BatchCreateResultDTO.rejected(i, describe(violations)));
+                continue;
             }
-            cleanedTitle = priorityMatcher.replaceFirst("").trim();
-        }
-
-        Matcher deadlineMatcher = deadlinePattern.matcher(cleanedTitle);
-        if (deadlineMatcher.find()) {
-            String dateStr = deadlineMatcher.group(1).replace("-", ".");
             try {
-                DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yyyy");
-                macroDeadline = LocalDate.parse(dateStr, formatter).atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
-            } catch (DateTimeParseException e) {
-                throw new BadRequestException("Invalid deadline format. Use DD.MM.YYYY");
+                tasks.add(buildTask(taskDTO));
+                taskIndexes.add(i);
+            } catch (BadRequestException e) {
+                results.set(i, BatchCreateResultDTO.rejected(i, e.getMessage()));
             }
-            cleanedTitle = deadlineMatcher.replaceFirst("").trim();
         }
 
-        return new TitleMacroResult(cleanedTitle, macroPriority, macroDeadline);
+        // один saveAll в одной транзакции: при flush Hibernate отправит INSERT'ы JDBC-пачками
+        List<Task> saved = taskRepository.saveAll(tasks);
+        for (int i = 0; i < saved.size(); i++) {
+            int index = taskIndexes.get(i);
+            eventPublisher.publishEvent(TaskChangedEvent.created(saved.get(i)));
+            results.set(index, BatchCreateResultDTO.created(index, convertToDTO(saved.get(i))));
+        }
+        return results;
     }
 
-    public TaskDTO createTask(CreateTaskDTO taskDTO) {
-        if (taskDTO == null) throw new BadRequestException("Task DTO is null");
+    // в том же виде, что ошибка @Valid в GlobalExceptionHandler
+    private static String describe(Set<ConstraintViolation<CreateTaskDTO>> violations) {
+        return "Validation failed: " + violations.stream()
+                .map(violation -> "Поле '" + violation.getPropertyPath() + "': " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
 
-        TitleMacroResult macro = processTitleMacros(taskDTO.getTitle());
+    private Task buildTask(CreateTaskDTO taskDTO) {
+        TitleMacroParser.Result macro = processTitleMacros(taskDTO.getTitle());
 
-        if (macro.cleanedTitle.length() < 4)
+        if (macro.getCleanedTitle().length() < 4)
             throw new BadRequestException("Title must be at least 4 characters");
 
         Task task = new Task();
-        task.setTitle(macro.cleanedTitle);
+        task.setTitle(macro.getCleanedTitle());
         task.setDescription(taskDTO.getDescription());
 
         task.setPriority(
                 taskDTO.getPriority() != null ? taskDTO.getPriority()
-                        : macro.macroPriority != null ? macro.macroPriority
+                        : macro.getMacroPriority() != null ? macro.getMacroPriority()
                         : Priority.MEDIUM
         );
 
         task.setDeadline(
                 taskDTO.getDeadline() != null ? taskDTO.getDeadline()
-                        : macro.macroDeadline
+                        : macro.getMacroDeadline()
         );
 
         task.setStatus(Status.ACTIVE);
-
-        return convertToDTO(taskRepository.save(task));
+        return task;
     }
 
     public void toggleTask(UUID id) {
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Task not found: " + id));
-        switch (task.getStatus()) {
-            case ACTIVE: task.setStatus(Status.COMPLETED); break;
-            case COMPLETED: task.setStatus(Status.ACTIVE); break;
-            case OVERDUE: task.setStatus(Status.LATE); break;
-            case LATE: task.setStatus(Status.OVERDUE); break;
-            default: throw new BadRequestException("Invalid status");
-        }
-        task.setUpdatedAt(OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC));
-        taskRepository.save(task);
+        toggleTask(id, null);
+    }
+
+    /**
+     * @param expectedVersion версия из {@code If-Match}; null — без предусловия
+     */
+    public void toggleTask(UUID id, Long expectedVersion) {
+        // вместо findById + save: один условный UPDATE, который сам возвращает прежнее состояние,
+        // нужное счётчикам статистики
+        OffsetDateTime now = OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC);
+        TaskState previous = taskRepository.toggleStatus(id, now, expectedVersion)
+                .orElseThrow(() -> notWritten(id, expectedVersion));
+        eventPublisher.publishEvent(TaskChangedEvent.toggled(id, previous, previous.toggled(now)));
     }
 
     public void updateTask(UUID id, UpdateTaskDTO dto) {
+        updateTask(id, dto, null);
+    }
+
+    public void updateTask(UUID id, UpdateTaskDTO dto, Long expectedVersion) {
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new NotFoundException("Task not found"));
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion()))
+            throw new PreconditionFailedException("Task version does not match If-Match: " + id);
 
+        TaskState previous = TaskState.of(task);
         if (dto.getTitle() != null) {
-            TitleMacroResult macro = processTitleMacros(dto.getTitle());
-            if (macro.cleanedTitle.length() < 4)
+            TitleMacroParser.Result macro = processTitleMacros(dto.getTitle());
+            if (macro.getCleanedTitle().length() < 4)
                 throw new BadRequestException("Title must be at least 4 characters");
-            task.setTitle(macro.cleanedTitle);
-            task.setPriority(dto.getPriority() != null ? dto.getPriority() : macro.macroPriority);
-            task.setDeadline(dto.getDeadline() != null ? dto.getDeadline() : macro.macroDeadline);
+            task.setTitle(macro.getCleanedTitle());
+            task.setPriority(dto.getPriority() != null ? dto.getPriority() : macro.getMacroPriority());
+            task.setDeadline(dto.getDeadline() != null ? dto.getDeadline() : macro.getMacroDeadline());
         }
 
         task.setDescription(dto.getDescription());
 
         task.setUpdatedAt(OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC));
         taskRepository.save(task);
+        eventPublisher.publishEvent(TaskChangedEvent.updated(previous, task));
     }
 
-    public void deleteTask(UUID id) {
-        if (!taskRepository.existsById(id)) {
-            throw new NotFoundException("Task not found: " + id);
+    /**
+     * Частичное обновление: меняются только поля, пришедшие не null, одним UPDATE без загрузки сущности.
+     * Правка только текста (заголовок без макросов, описание) не трогает статус, приоритет и дедлайн,
+     * поэтому обходится без чтения строки; при смене приоритета или дедлайна сначала читается
+     * их прежнее значение — оно нужно подписчикам события, — и UPDATE идёт с проверкой версии.
+     */
+    @Transactional
+    public void patchTask(UUID id, UpdateTaskDTO dto, Long expectedVersion) {
+        if (dto == null) throw new BadRequestException("Task DTO is null");
+
+        String title = null;
+        Priority priority = dto.getPriority();
+        OffsetDateTime deadline = dto.getDeadline();
+        if (dto.getTitle() != null) {
+            TitleMacroParser.Result macro = processTitleMacros(dto.getTitle());
+            if (macro.getCleanedTitle().length() < 4)
+                throw new BadRequestException("Title must be at least 4 characters");
+            title = macro.getCleanedTitle();
+            if (priority == null) priority = macro.getMacroPriority();
+            if (deadline == null) deadline = macro.getMacroDeadline();
         }
-        taskRepository.deleteById(id);
+        if (title == null && dto.getDescription() == null && priority == null && deadline == null)
+            throw new BadRequestException("Nothing to update");
+        OffsetDateTime now = OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC);
+
+        if (priority == null && deadline == null) {
+            if (patchColumns(id, title, dto.getDescription(), null, null, now, expectedVersion) == 0) {
+                findState(id, expectedVersion);
+                throw new PreconditionFailedException("Task version does not match If-Match: " + id);
+            }
+            eventPublisher.publishEvent(TaskChangedEvent.textEdited(id));
+            return;
+        }
+
+        TaskStateView state;
+        do {
+            state = findState(id, expectedVersion);
+        } while (patchColumns(id, title, dto.getDescription(), priority, deadline, now, state.getVersion()) == 0);
+        TaskState previous = new TaskState(state.getStatus(), state.getPriority(), state.getDeadline());
+        eventPublisher.publishEvent(TaskChangedEvent.updated(id, previous, new TaskState(previous.status(),
+                priority != null ? priority : previous.priority(),
+                deadline != null ? deadline : previous.deadline())));
     }
 
+    /**
+     * UPDATE только переданных колонок плюс updatedAt и версия; при {@code expectedVersion != null}
+     * строка меняется, только если версия совпала. Возвращает число изменённых строк.
+     */
+    private int patchColumns(UUID id, String title, String description, Priority priority,
+                             OffsetDateTime deadline, OffsetDateTime now, Long expectedVersion) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Task> update = cb.createCriteriaUpdate(Task.class);
+        Root<Task> root = update.from(Task.class);
+        if (title != null) update.set(root.<String>get("title"), title);
+        if (description != null) update.set(root.<String>get("description"), description);
+        if (priority != null) update.set(root.<Priority>get("priority"), priority);
+        if (deadline != null) update.set(root.<OffsetDateTime>get("deadline"), deadline);
+        update.set(root.<OffsetDateTime>get("updatedAt"), now);
+        update.set(root.<Long>get("version"), cb.sum(root.<Long>get("version"), cb.literal(1L)));
+
+        Predicate byId = cb.equal(root.get("id"), id);
+        update.where(expectedVersion == null ? byId : cb.and(byId, cb.equal(root.get("version"), expectedVersion)));
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    public void deleteTask(UUID id) {
+        deleteTask(id, null);
+    }
+
+    // DELETE и tombstone для дельта-синхронизации — в одной транзакции
+    @Transactional
+    public void deleteTask(UUID id, Long expectedVersion) {
+        TaskState previous = taskRepository.deleteTaskById(id, expectedVersion)
+                .orElseThrow(() -> notWritten(id, expectedVersion));
+        taskDeletionRepository.record(id, OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC));
+        eventPublisher.publishEvent(TaskChangedEvent.deleted(id, previous));
+    }
+
+    /**
+     * Ошибка для условной записи, не изменившей ни одной строки. Без {@code If-Match} это значит,
+     * что задачи нет; с ним строка читается, только чтобы отличить 404 от 412.
+     */
+    private RuntimeException notWritten(UUID id, Long expectedVersion) {
+        if (expectedVersion == null) return new NotFoundException("Task not found: " + id);
+        findState(id, expectedVersion);
+        return new PreconditionFailedException("Task version does not match If-Match: " + id);
+    }
+
+    private TaskStateView findState(UUID id, Long expectedVersion) {
+        TaskStateView state = taskRepository.findStateById(id)
+                .orElseThrow(() -> new NotFoundException("Task not found: " + id));
+        if (expectedVersion != null && !expectedVersion.equals(state.getVersion()))
+            throw new PreconditionFailedException("Task version does not match If-Match: " + id);
+        return state;
+    }
+
+    @Transactional(readOnly = true)
     public List<TaskDTO> getAllTasks(Status status, Priority priority, OffsetDateTime deadlineFrom,
                                      OffsetDateTime deadlineTo, SortField sortBy, SortDirection direction) {
 
         // Уязвимость: SQL Injection (если status подставлен напрямую)
         if (status != null) {
-            String unsafeQuery = "SELECT t FROM Task t WHERE t.status = '" + status + "'";
-            Query query = entityManager.createQuery(unsafeQuery);
-            return ((List<Task>) query.getResultList())
-                    .stream()
-                    .map(this::convertToDTO)
-                    .collect(Collectors.toList());
+            String unsafeQuery = "SELECT new ru.hits.todobackend.dto.TaskDTO(t.id, t.title, t.description, t.status, " +
+                    "t.priority, t.deadline, t.createdAt, t.updatedAt, t.version) FROM Task t WHERE t.status = '" + status + "'";
+            return entityManager.createQuery(unsafeQuery, TaskDTO.class).getResultList();
         }
 
         Sort sort = Sort.by(Sort.Direction.fromString(direction.name()), sortBy.getFieldName());
@@ -180,18 +308,109 @@ public class TaskService {
                 .and(TaskSpecifications.hasPriority(priority))
                 .and(TaskSpecifications.deadlineBetween(deadlineFrom, deadlineTo));
 
-        return taskRepository.findAll(spec, sort)
-                .stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        return createDTOQuery(spec, sort).getResultList();
+    }
+
+    public TaskPageDTO getTasksPage(Status status, Priority priority, OffsetDateTime deadlineFrom,
+                                    OffsetDateTime deadlineTo, SortField sortBy, SortDirection direction,
+                                    Integer limit, String after) {
+        return getTasksPage(status, priority, deadlineFrom, deadlineTo, sortBy, direction, limit, after, null);
     }
 
+    /**
+     * @param q полнотекстовый запрос; null — без поиска. Порядок задаёт {@code sortBy},
+     *          выдача по релевантности — {@link #searchTasks}
+     */
+    @Transactional(readOnly = true)
+    public TaskPageDTO getTasksPage(Status status, Priority priority, OffsetDateTime deadlineFrom,
+                                    OffsetDateTime deadlineTo, SortField sortBy, SortDirection direction,
+                                    Integer limit, String after, String q) {
+        int pageSize = pageSize(limit);
+        TaskCursor cursor = after != null ? TaskCursor.decode(after, sortBy, direction) : null;
+
+        Specification<Task> filter = Specification
+                .where(TaskSpecifications.hasStatus(status))
+                .and(TaskSpecifications.hasPriority(priority))
+                .and(TaskSpecifications.deadlineBetween(deadlineFrom, deadlineTo))
+                .and(taskSearchService.matching(q));
+
+        // на одну строку больше, чтобы понять, есть ли следующая страница, без COUNT
+        List<TaskDTO> items = seekPage(filter.and(TaskSpecifications.seekAfter(sortBy, cursor)),
+                sortBy, direction, pageSize + 1);
+        // непустые значения кончились — страница дочитывается из NULL-хвоста
+        boolean inNullTail = cursor != null && cursor.getValue() == null;
+        if (items.size() <= pageSize && sortBy.isNullable() && !inNullTail) {
+            items = new ArrayList<>(items);
+            items.addAll(seekPage(filter.and(TaskSpecifications.withoutSortValue(sortBy)),
+                    sortBy, direction, pageSize + 1 - items.size()));
+        }
+
+        String nextCursor = null;
+        if (items.size() > pageSize) {
+            items = items.subList(0, pageSize);
+            nextCursor = TaskCursor.after(items.get(pageSize - 1), sortBy, direction).encode();
+        }
+        return new TaskPageDTO(items, nextCursor);
+    }
+
+    private List<TaskDTO> seekPage(Specification<Task> spec, SortField sortBy, SortDirection direction, int limit) {
+        return createDTOQuery(spec.and(TaskSpecifications.orderedForSeek(sortBy, direction)), Sort.unsorted())
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    /**
+     * Полнотекстовый поиск по заголовку и описанию с теми же фильтрами, что у списка,
+     * по убыванию релевантности; всегда постранично.
+     */
+    @Transactional(readOnly = true)
+    public TaskPageDTO searchTasks(String q, Status status, Priority priority, OffsetDateTime deadlineFrom,
+                                   OffsetDateTime deadlineTo, Integer limit, String after) {
+        if (q == null || q.isBlank())
+            throw new BadRequestException("q must not be blank");
+        int pageSize = pageSize(limit);
+
+        return taskSearchService.search(q, TaskSpecifications.matchesFilter(status, priority, deadlineFrom, deadlineTo),
+                pageSize, after);
+    }
+
+    private static int pageSize(Integer limit) {
+        int pageSize = limit != null ? limit : DEFAULT_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE)
+            throw new BadRequestException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        return pageSize;
+    }
+
+    @Transactional(readOnly = true)
     public TaskDTO getTaskById(UUID id) {
-        return taskRepository.findById(id)
-                .map(this::convertToDTO)
+        return taskRepository.findDtoById(id)
                 .orElseThrow(() -> new NotFoundException("Task not found"));
     }
 
+    /**
+     * Criteria-запрос, который выбирает строки сразу в {@link TaskDTO}: сущности {@link Task}
+     * не создаются, не попадают в persistence context и не получают снимков для dirty checking.
+     * Сортировка из спецификации (как у {@link TaskSpecifications#orderedForSeek}) имеет приоритет над {@code sort}.
+     */
+    public TypedQuery<TaskDTO> createDTOQuery(Specification<Task> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<TaskDTO> query = cb.createQuery(TaskDTO.class);
+        Root<Task> root = query.from(Task.class);
+        query.select(cb.construct(TaskDTO.class,
+                root.get("id"), root.get("title"), root.get("description"), root.get("status"),
+                root.get("priority"), root.get("deadline"), root.get("createdAt"), root.get("updatedAt"),
+                root.get("version")));
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, cb));
+        }
+
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query);
+    }
+
     public TaskDTO convertToDTO(Task entity) {
         TaskDTO dto = new TaskDTO();
         dto.setId(entity.getId());
@@ -202,6 +421,7 @@ public class TaskService {
         dto.setDeadline(entity.getDeadline());
         dto.setCreatedAt(entity.getCreatedAt());
         dto.setUpdatedAt(entity.getUpdatedAt());
+        dto.setVersion(entity.getVersion());
         return dto;
     }
 }
@@ -0,0 +1,199 @@
+package ru.hits.todobackend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import ru.hits.todobackend.dto.TaskStatsDTO;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TaskState;
+import ru.hits.todobackend.events.TasksMarkedOverdueEvent;
+import ru.hits.todobackend.repository.TaskCountView;
+import ru.hits.todobackend.repository.TaskRepository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики задач для {@code GET /api/tasks/stats}: ответ собирается из {@link LongAdder}'ов
+ * в памяти, без запроса к БД, и не зависит от размера таблицы.
+ * <p>
+ * Счётчик на каждую пару статус × приоритет и счётчики невыполненных задач по дням дедлайна —
+ * только для сегодня и завтра: завтрашний становится сегодняшним в полночь, а более дальние дни
+ * не нужны. Изменения приходят событиями после коммита: {@link TaskChangedEvent} несёт состояние
+ * до и после, а для переводов в OVERDUE разбивка по приоритетам дочитывается по {@code update_date}.
+ * <p>
+ * При старте и затем периодически счётчики сверяются с GROUP BY: расхождение (правки в обход
+ * приложения, другие узлы, гонка сверки с событием) исправляется прибавлением разницы, а не
+ * перезаписью, и только у тех счётчиков, которые не менялись, пока шёл запрос.
+ */
+@Service
+public class TaskStatsService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskStatsService.class);
+
+    private static final Status[] STATUSES = Status.values();
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final TaskRepository taskRepository;
+    private final ZoneId zone;
+
+    private final LongAdder[][] counts = new LongAdder[STATUSES.length][PRIORITIES.length];
+    private final Map<LocalDate, LongAdder> dueByDay = new ConcurrentHashMap<>();
+
+    public TaskStatsService(TaskRepository taskRepository, @Value("${todo.stats.zone:UTC}") ZoneId zone) {
+        this.taskRepository = taskRepository;
+        this.zone = zone;
+        for (LongAdder[] row : counts) {
+            for (int p = 0; p < row.length; p++) {
+                row[p] = new LongAdder();
+            }
+        }
+    }
+
+    public TaskStatsDTO getStats() {
+        Map<Status, Long> byStatus = new EnumMap<>(Status.class);
+        Map<Priority, Long> byPriority = new EnumMap<>(Priority.class);
+        Map<Status, Map<Priority, Long>> byStatusAndPriority = new EnumMap<>(Status.class);
+        long total = 0;
+        for (Status status : STATUSES) {
+            Map<Priority, Long> row = new EnumMap<>(Priority.class);
+            long statusTotal = 0;
+            for (Priority priority : PRIORITIES) {
+                long count = cell(status, priority).sum();
+                row.put(priority, count);
+                byPriority.merge(priority, count, Long::sum);
+                statusTotal += count;
+            }
+            byStatusAndPriority.put(status, row);
+            byStatus.put(status, statusTotal);
+            total += statusTotal;
+        }
+
+        TaskStatsDTO stats = new TaskStatsDTO();
+        stats.setTotal(total);
+        stats.setByStatus(byStatus);
+        stats.setByPriority(byPriority);
+        stats.setByStatusAndPriority(byStatusAndPriority);
+        stats.setDueToday(dueCounter(LocalDate.now(zone)).sum());
+        return stats;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChanged(TaskChangedEvent event) {
+        apply(event.getPrevious(), -1);
+        apply(event.getCurrent(), 1);
+    }
+
+    /**
+     * ACTIVE → OVERDUE: дедлайн тот же и задача остаётся невыполненной,
+     * поэтому меняются только счётчики статусов.
+     */
+    @EventListener
+    public void onTasksMarkedOverdue(TasksMarkedOverdueEvent event) {
+        for (TaskCountView row : taskRepository.countMarkedOverdue(event.getMarkedAt())) {
+            cell(Status.ACTIVE, row.getPriority()).add(-row.getCount());
+            cell(Status.OVERDUE, row.getPriority()).add(row.getCount());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        reconcile();
+    }
+
+    /**
+     * Сверяет счётчики с БД и возвращает число исправленных.
+     */
+    @Scheduled(fixedDelayString = "${todo.stats.reconcile-interval:60000}",
+            initialDelayString = "${todo.stats.reconcile-interval:60000}")
+    public int reconcile() {
+        LocalDate today = LocalDate.now(zone);
+        long[][] seen = new long[STATUSES.length][PRIORITIES.length];
+        for (int s = 0; s < STATUSES.length; s++) {
+            for (int p = 0; p < PRIORITIES.length; p++) {
+                seen[s][p] = counts[s][p].sum();
+            }
+        }
+        long[][] actual = new long[STATUSES.length][PRIORITIES.length];
+        for (TaskCountView row : taskRepository.countByStatusAndPriority()) {
+            actual[row.getStatus().ordinal()][row.getPriority().ordinal()] = row.getCount();
+        }
+
+        int corrected = 0;
+        for (int s = 0; s < STATUSES.length; s++) {
+            for (int p = 0; p < PRIORITIES.length; p++) {
+                corrected += correct(counts[s][p], seen[s][p], actual[s][p]);
+            }
+        }
+        for (LocalDate day : new LocalDate[]{today, today.plusDays(1)}) {
+            LongAdder due = dueByDay.computeIfAbsent(day, d -> new LongAdder());
+            long seenDue = due.sum();
+            corrected += correct(due, seenDue, countDue(day));
+        }
+        dueByDay.keySet().removeIf(day -> day.isBefore(today));
+
+        if (corrected > 0) {
+            logger.info("Task stats reconciled: {} counters corrected", corrected);
+        }
+        return corrected;
+    }
+
+    private void apply(TaskState state, int delta) {
+        if (state == null || state.status() == null || state.priority() == null) {
+            return;
+        }
+        cell(state.status(), state.priority()).add(delta);
+        if (state.isOpen() && state.deadline() != null) {
+            LongAdder due = dueByDay.get(state.deadline().atZoneSameInstant(zone).toLocalDate());
+            if (due != null) {
+                due.add(delta);
+            }
+        }
+    }
+
+    private LongAdder cell(Status status, Priority priority) {
+        return counts[status.ordinal()][priority.ordinal()];
+    }
+
+    private LongAdder dueCounter(LocalDate day) {
+        LongAdder due = dueByDay.get(day);
+        if (due == null) {
+            // сутки сменились дважды без сверки — досчитываем день сразу
+            due = dueByDay.computeIfAbsent(day, d -> new LongAdder());
+            long seen = due.sum();
+            correct(due, seen, countDue(day));
+        }
+        return due;
+    }
+
+    private long countDue(LocalDate day) {
+        OffsetDateTime from = day.atStartOfDay(zone).toOffsetDateTime();
+        OffsetDateTime to = day.plusDays(1).atStartOfDay(zone).toOffsetDateTime();
+        return taskRepository.countOpenDueBetween(from, to);
+    }
+
+    /**
+     * Доводит счётчик до {@code actual}, если с момента {@code seen} его никто не менял;
+     * иначе событие пришло во время запроса, и исправление откладывается до следующей сверки.
+     */
+    private static int correct(LongAdder counter, long seen, long actual) {
+        long current = counter.sum();
+        if (current != seen || current == actual) {
+            return 0;
+        }
+        counter.add(actual - current);
+        return 1;
+    }
+}
@@ -0,0 +1,121 @@
+package ru.hits.todobackend.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.hits.todobackend.Specification.SyncToken;
+import ru.hits.todobackend.Specification.TaskSpecifications;
+import ru.hits.todobackend.dto.TaskChangesDTO;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.TaskDeletion;
+import ru.hits.todobackend.entities.enum_entities.SortDirection;
+import ru.hits.todobackend.entities.enum_entities.SortField;
+import ru.hits.todobackend.exception.BadRequestException;
+import ru.hits.todobackend.exception.GoneException;
+import ru.hits.todobackend.repository.TaskDeletionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Дельта-синхронизация: задачи, изменённые после токена, и tombstone'ы удалённых.
+ * Обе выборки — keyset по индексам {@code (update_date, id)} и {@code (deleted_at, task_id)},
+ * поэтому стоимость запроса зависит от объёма изменений, а не от размера таблицы.
+ * Как устроен токен и почему конец сеанса откатывается на {@code grace-period}, — в {@link SyncToken}.
+ */
+@Service
+public class TaskSyncService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TaskSyncService.class);
+    private static final OffsetDateTime BEGINNING = Instant.EPOCH.atOffset(ZoneOffset.UTC);
+
+    private final TaskService taskService;
+    private final TaskDeletionRepository taskDeletionRepository;
+    private final Duration gracePeriod;
+    private final Duration tombstoneRetention;
+
+    public TaskSyncService(TaskService taskService,
+                           TaskDeletionRepository taskDeletionRepository,
+                           @Value("${todo.sync.grace-period:5000}") long gracePeriodMillis,
+                           @Value("${todo.sync.tombstone-retention-days:30}") long tombstoneRetentionDays) {
+        this.taskService = taskService;
+        this.taskDeletionRepository = taskDeletionRepository;
+        this.gracePeriod = Duration.ofMillis(gracePeriodMillis);
+        this.tombstoneRetention = Duration.ofDays(tombstoneRetentionDays);
+    }
+
+    @Transactional(readOnly = true)
+    public TaskChangesDTO getChanges(String since, Integer limit) {
+        int pageSize = limit != null ? limit : TaskService.MAX_PAGE_SIZE;
+        if (pageSize < 1 || pageSize > TaskService.MAX_PAGE_SIZE)
+            throw new BadRequestException("limit must be between 1 and " + TaskService.MAX_PAGE_SIZE);
+
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+        OffsetDateTime floor = now.minus(gracePeriod);
+        SyncToken token;
+        if (since == null) {
+            token = SyncToken.initial(BEGINNING, floor);
+        } else {
+            token = SyncToken.decode(since);
+            if (token.isBetweenSessions()) {
+                if (token.getDeletionsAfter().isBefore(now.minus(tombstoneRetention)))
+                    throw new GoneException("Sync token expired, reload the full task list");
+                token = token.startSession(floor);
+            }
+        }
+
+        Specification<Task> spec = Specification
+                .where(TaskSpecifications.seekAfter(SortField.UPDATED_AT, token.tasksCursor()))
+                .and(TaskSpecifications.orderedForSeek(SortField.UPDATED_AT, SortDirection.ASC));
+        List<TaskDTO> items = taskService.createDTOQuery(spec, Sort.unsorted())
+                .setMaxResults(pageSize + 1)
+                .getResultList();
+        boolean moreTasks = items.size() > pageSize;
+        if (moreTasks) {
+            items = items.subList(0, pageSize);
+        }
+        if (!items.isEmpty()) {
+            TaskDTO last = items.get(items.size() - 1);
+            token = token.withTasksAfter(last.getUpdatedAt(), last.getId());
+        }
+
+        List<TaskDeletion> deletions = taskDeletionRepository.findAfter(
+                token.getDeletionsAfter(), token.getDeletionsAfterId(), Limit.of(pageSize + 1));
+        boolean moreDeletions = deletions.size() > pageSize;
+        if (moreDeletions) {
+            deletions = deletions.subList(0, pageSize);
+        }
+        if (!deletions.isEmpty()) {
+            TaskDeletion last = deletions.get(deletions.size() - 1);
+            token = token.withDeletionsAfter(last.getDeletedAt(), last.getTaskId());
+        }
+        List<UUID> deletedIds = deletions.stream().map(TaskDeletion::getTaskId).toList();
+
+        boolean hasMore = moreTasks || moreDeletions;
+        String nextToken = (hasMore ? token : token.finishSession()).encode();
+        return new TaskChangesDTO(items, deletedIds, nextToken, hasMore);
+    }
+
+    /**
+     * Tombstone'ы старше срока хранения больше не нужны: токен такой давности
+     * всё равно получит 410 и перечитает список целиком.
+     */
+    @Scheduled(fixedRate = 3600000)
+    public void pruneTombstones() {
+        int removed = taskDeletionRepository.deleteOlderThan(OffsetDateTime.now(ZoneOffset.UTC).minus(tombstoneRetention));
+        if (removed > 0) {
+            logger.info("Pruned {} task tombstones", removed);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.hits.todobackend.services;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс заголовков и описаний задач в памяти: слово → задачи с весом вхождений.
+ * Замена {@code search_vector} там, где нет PostgreSQL. Веса как у ts_rank по умолчанию:
+ * слово в заголовке (A) — 1.0, в описании (B) — 0.4. Запрос — слова через пробел,
+ * задача должна содержать каждое; стемминга и синтаксиса websearch_to_tsquery нет.
+ */
+class TaskTextIndex {
+
+    static final float TITLE_WEIGHT = 1.0f;
+    static final float DESCRIPTION_WEIGHT = 0.4f;
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final Map<String, Map<UUID, Float>> postings = new HashMap<>();
+    private final Map<UUID, List<String>> termsByTask = new HashMap<>();
+
+    synchronized void put(UUID taskId, String title, String description) {
+        remove(taskId);
+        Map<String, Float> weights = new HashMap<>();
+        tokens(title).forEach(term -> weights.merge(term, TITLE_WEIGHT, Float::sum));
+        tokens(description).forEach(term -> weights.merge(term, DESCRIPTION_WEIGHT, Float::sum));
+        weights.forEach((term, weight) -> postings.computeIfAbsent(term, t -> new HashMap<>()).put(taskId, weight));
+        termsByTask.put(taskId, new ArrayList<>(weights.keySet()));
+    }
+
+    synchronized void remove(UUID taskId) {
+        List<String> terms = termsByTask.remove(taskId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<UUID, Float> tasks = postings.get(term);
+            tasks.remove(taskId);
+            if (tasks.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    synchronized void clear() {
+        postings.clear();
+        termsByTask.clear();
+    }
+
+    /**
+     * Задачи, содержащие все слова запроса, с рангом — суммой весов этих слов.
+     */
+    synchronized Map<UUID, Float> search(String q) {
+        List<String> terms = tokens(q);
+        if (terms.isEmpty()) {
+            return Map.of();
+        }
+        // пересечение начинаем с самого редкого слова
+        terms.sort((a, b) -> Integer.compare(postings(a).size(), postings(b).size()));
+        Map<UUID, Float> ranks = new HashMap<>(postings(terms.get(0)));
+        for (String term : terms.subList(1, terms.size())) {
+            Map<UUID, Float> tasks = postings(term);
+            ranks.entrySet().removeIf(entry -> !tasks.containsKey(entry.getKey()));
+            ranks.replaceAll((id, rank) -> rank + tasks.get(id));
+        }
+        return ranks;
+    }
+
+    private Map<UUID, Float> postings(String term) {
+        return postings.getOrDefault(term, Map.of());
+    }
+
+    static List<String> tokens(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        for (String token : NON_WORD.split(text.toLowerCase(Locale.ROOT).replace('ё', 'е'))) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,155 @@
+package ru.hits.todobackend.services;
+
+import lombok.Getter;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.exception.BadRequestException;
+
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.OffsetDateTime;
+import java.time.Year;
+import java.time.ZoneId;
+
+/**
+ * Разбор макросов в заголовке задачи без регулярных выражений, за один проход по заголовку.
+ * <p>
+ * Поддерживаются {@code !1}–{@code !4} (приоритет) и {@code !before DD.MM.YYYY}
+ * (дедлайн, допускается и {@code DD-MM-YYYY}). Из заголовка убирается первое вхождение
+ * каждого макроса; если сработал хотя бы один, результат обрезается по краям.
+ * <p>
+ * Символы копируются в начало того же буфера. Макрос приоритета распознаётся на {@code '!'}
+ * и не копируется. Дедлайн распознаётся на последней цифре даты по уже скопированной части —
+ * перед датой должны стоять пробелы и {@code !before}, — поэтому он ищется в тексте, из которого
+ * приоритет уже вырезан: {@code "!!1before 01.01.2030"} даёт дедлайн.
+ */
+public final class TitleMacroParser {
+
+    private static final char MACRO_PREFIX = '!';
+    private static final Priority[] PRIORITIES = {Priority.CRITICAL, Priority.HIGH, Priority.MEDIUM, Priority.LOW};
+    private static final char[] BEFORE = "before".toCharArray();
+    private static final int DATE_LENGTH = "DD.MM.YYYY".length();
+
+    private TitleMacroParser() {
+    }
+
+    @Getter
+    public static final class Result {
+        private String cleanedTitle;
+        private Priority macroPriority;
+        private OffsetDateTime macroDeadline;
+    }
+
+    public static Result parse(String title) {
+        Result result = new Result();
+        if (title.indexOf(MACRO_PREFIX) < 0) {
+            result.cleanedTitle = title;
+            return result;
+        }
+
+        char[] buf = title.toCharArray();
+        int len = 0;
+        for (int i = 0; i < buf.length; ) {
+            char c = buf[i];
+            if (c == MACRO_PREFIX && result.macroPriority == null && i + 1 < buf.length && isPriority(buf[i + 1])) {
+                result.macroPriority = PRIORITIES[buf[i + 1] - '1'];
+                i += 2;
+                continue;
+            }
+            buf[len++] = c;
+            i++;
+            if (result.macroDeadline == null && isDigit(c)) {
+                int macroStart = deadlineEndingAt(buf, len);
+                if (macroStart >= 0) {
+                    result.macroDeadline = parseDate(buf, len - DATE_LENGTH);
+                    len = macroStart;
+                }
+            }
+        }
+
+        if (len == buf.length) {
+            result.cleanedTitle = title;
+            return result;
+        }
+
+        int start = 0;
+        int end = len;
+        while (start < end && buf[start] <= ' ') start++;
+        while (end > start && buf[end - 1] <= ' ') end--;
+        result.cleanedTitle = new String(buf, start, end - start);
+        return result;
+    }
+
+    /**
+     * Начало макроса дедлайна, который заканчивается ровно перед {@code end}, или -1.
+     */
+    private static int deadlineEndingAt(char[] buf, int end) {
+        int dateStart = end - DATE_LENGTH;
+        if (dateStart < 0 || !isDate(buf, end, dateStart)) return -1;
+
+        int spaceStart = dateStart;
+        while (spaceStart > 0 && isWhitespace(buf[spaceStart - 1])) spaceStart--;
+        int macroStart = spaceStart - 1 - BEFORE.length;
+        if (spaceStart == dateStart || macroStart < 0 || buf[macroStart] != MACRO_PREFIX
+                || !regionMatches(buf, spaceStart, macroStart + 1, BEFORE)) return -1;
+        return macroStart;
+    }
+
+    private static boolean isPriority(char c) {
+        return c >= '1' && c <= '4';
+    }
+
+    private static boolean regionMatches(char[] buf, int len, int from, char[] expected) {
+        if (from + expected.length > len) return false;
+        for (int i = 0; i < expected.length; i++) {
+            if (buf[from + i] != expected[i]) return false;
+        }
+        return true;
+    }
+
+    // тот же набор, что \s в java.util.regex без UNICODE_CHARACTER_CLASS
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isDateSeparator(char c) {
+        return c == '.' || c == '-';
+    }
+
+    private static boolean isDate(char[] buf, int len, int at) {
+        return at + DATE_LENGTH <= len
+                && isDigit(buf[at]) && isDigit(buf[at + 1])
+                && isDateSeparator(buf[at + 2])
+                && isDigit(buf[at + 3]) && isDigit(buf[at + 4])
+                && isDateSeparator(buf[at + 5])
+                && isDigit(buf[at + 6]) && isDigit(buf[at + 7]) && isDigit(buf[at + 8]) && isDigit(buf[at + 9]);
+    }
+
+    private static int number(char[] buf, int at, int digits) {
+        int value = 0;
+        for (int i = at; i < at + digits; i++) {
+            value = value * 10 + (buf[i] - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Повторяет ResolverStyle.SMART у {@code DateTimeFormatter.ofPattern("dd.MM.yyyy")}:
+     * день вне 1–31, месяц вне 1–12 и нулевой год — ошибка, а 31.04 сдвигается на последний день месяца.
+     */
+    private static OffsetDateTime parseDate(char[] buf, int at) {
+        int day = number(buf, at, 2);
+        int month = number(buf, at + 3, 2);
+        int year = number(buf, at + 6, 4);
+        if (day < 1 || day > 31 || month < 1 || month > 12 || year < 1)
+            throw new BadRequestException("Invalid deadline format. Use DD.MM.YYYY");
+
+        int lastDay = Month.of(month).length(Year.isLeap(year));
+        return LocalDate.of(year, month, Math.min(day, lastDay))
+                .atStartOfDay(ZoneId.systemDefault())
+                .toOffsetDateTime();
+    }
+}
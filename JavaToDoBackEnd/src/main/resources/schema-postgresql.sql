@@ -0,0 +1,21 @@
+-- Выполняется после DDL Hibernate (spring.jpa.defer-datasource-initialization=true).
+-- Сверка дедлайнов и индекс DeadlineCheckService смотрят только на ACTIVE-задачи с дедлайном:
+-- частичный индекс в разы меньше полного и не трогается при изменении завершённых задач.
+CREATE INDEX IF NOT EXISTS idx_tasks_active_deadline
+    ON tasks (deadline_date)
+    WHERE status = 'ACTIVE' AND deadline_date IS NOT NULL;
+
+-- Прежний индекс по одному deadline_date заменён на (deadline_date, id) под keyset-пагинацию;
+-- ddl-auto=update старые индексы не удаляет.
+DROP INDEX IF EXISTS idx_tasks_deadline;
+
+-- Полнотекстовый поиск (параметр q): вектор заголовка (вес A) и описания (вес B) хранится
+-- генерируемой колонкой и индексируется GIN. Hibernate о колонке не знает — её читают только
+-- функции task_search_match/task_search_rank из TaskSearchFunctions. Добавление колонки
+-- в заполненную таблицу один раз переписывает её целиком.
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('russian', coalesce(task_title, '')), 'A') ||
+        setweight(to_tsvector('russian', coalesce(task_description, '')), 'B')
+    ) STORED;
+CREATE INDEX IF NOT EXISTS idx_tasks_search ON tasks USING gin (search_vector);
@@ -0,0 +1,194 @@
+package ru.hits.todobackend.controllersTests;
+
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hits.todobackend.config.ReadYourWritesFilter;
+import ru.hits.todobackend.config.ReplicaLagMonitor;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Маршрутизация чтений на двух in-memory H2: основной и «реплике». Репликации между ними нет —
+ * схема копируется один раз, а heartbeat на реплику тест переносит сам, изображая то догнавшую,
+ * то отставшую реплику. Поэтому задача, созданная через API, на реплике не появляется никогда,
+ * и по ответу видно, из какой БД он прочитан.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=" + ReplicaRoutingTests.PRIMARY_URL,
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.datasource.username=sa",
+        "spring.datasource.password=",
+        "spring.sql.init.platform=h2",
+        "todo.datasource.replicas[0].url=" + ReplicaRoutingTests.REPLICA_URL,
+        // проверки отставания тест запускает сам
+        "todo.datasource.replica-check-interval=3600000"
+})
+@ActiveProfiles("test")
+class ReplicaRoutingTests {
+
+    private static final String H2_OPTIONS = ";MODE=PostgreSQL;DB_CLOSE_DELAY=-1"
+            + ";INIT=CREATE DOMAIN IF NOT EXISTS TIMESTAMPTZ AS TIMESTAMP WITH TIME ZONE";
+    static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary" + H2_OPTIONS;
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica" + H2_OPTIONS;
+
+    private static final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+    private static final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+    private static boolean schemaCopied;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    private String getBaseUrl() {
+        return "http://localhost:" + port + "/api/tasks";
+    }
+
+    @BeforeEach
+    void copySchemaToReplica() {
+        if (schemaCopied) {
+            return;
+        }
+        // первая проверка создаёт в основной БД таблицу heartbeat'а
+        replicaLagMonitor.check();
+        List<String> script = primary.queryForList("SCRIPT NODATA", String.class);
+        script.stream()
+                // пользователь и домен TIMESTAMPTZ на реплике уже есть (INIT в URL)
+                .filter(statement -> !statement.startsWith("CREATE USER") && !statement.startsWith("CREATE DOMAIN"))
+                .forEach(replica::execute);
+        schemaCopied = true;
+    }
+
+    private void replicaCaughtUp() {
+        OffsetDateTime beat = primary.queryForObject(
+                "SELECT beat_at FROM " + ReplicaLagMonitor.TABLE + " WHERE id = 1", OffsetDateTime.class);
+        setReplicaHeartbeat(beat);
+        replicaLagMonitor.check();
+    }
+
+    private void replicaLagging() {
+        setReplicaHeartbeat(OffsetDateTime.now().minusHours(1));
+        replicaLagMonitor.check();
+    }
+
+    private void setReplicaHeartbeat(OffsetDateTime beat) {
+        replica.update("DELETE FROM " + ReplicaLagMonitor.TABLE);
+        replica.update("INSERT INTO " + ReplicaLagMonitor.TABLE + " (id, beat_at) VALUES (1, ?)", beat);
+    }
+
+    private Response createTask(String title) {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle(title);
+        return given()
+                .contentType(ContentType.JSON)
+                .body(dto)
+                .when()
+                .post(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.CREATED.value())
+                .cookie(ReadYourWritesFilter.COOKIE)
+                .extract().response();
+    }
+
+    @Test
+    @DisplayName("Запись идёт в основную БД, а список без cookie читается с догнавшей реплики")
+    void getAllTasks_ReplicaCaughtUp_ReadsFromReplica() {
+        String id = createTask("Только в основной БД").jsonPath().getString("id");
+        replicaCaughtUp();
+
+        given()
+                .when()
+                .get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", not(hasItem(id)));
+        Integer onPrimary = primary.queryForObject("SELECT COUNT(*) FROM tasks WHERE id = ?", Integer.class,
+                UUID.fromString(id));
+        assertEquals(1, onPrimary);
+    }
+
+    @Test
+    @DisplayName("После своей записи клиент с cookie читает с основной БД и видит задачу")
+    void getAllTasks_WithReadYourWritesCookie_ReadsFromPrimary() {
+        Response created = createTask("Своя запись");
+        String id = created.jsonPath().getString("id");
+        replicaCaughtUp();
+
+        given()
+                .cookie(ReadYourWritesFilter.COOKIE, created.getCookie(ReadYourWritesFilter.COOKIE))
+                .when()
+                .get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", hasItem(id));
+        given()
+                .cookie(ReadYourWritesFilter.COOKIE, created.getCookie(ReadYourWritesFilter.COOKIE))
+                .when()
+                .get(getBaseUrl() + "/export")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(containsString(id));
+        // просроченный cookie больше не закрепляет клиента
+        given()
+                .cookie(ReadYourWritesFilter.COOKIE, String.valueOf(System.currentTimeMillis() - 1))
+                .when()
+                .get(getBaseUrl() + "/export")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(not(containsString(id)));
+    }
+
+    @Test
+    @DisplayName("Отставшая реплика выводится из ротации: чтения идут на основную БД")
+    void getAllTasks_ReplicaLagging_FallsBackToPrimary() {
+        String id = createTask("Реплика отстала").jsonPath().getString("id");
+        replicaLagging();
+
+        given()
+                .when()
+                .get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", hasItem(id));
+
+        replicaCaughtUp();
+        given()
+                .when()
+                .get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", not(hasItem(id)));
+    }
+
+    @Test
+    @DisplayName("GET по id читает с основной БД: кэш ответов не должен запомнить версию реплики")
+    void getTaskById_ReplicaCaughtUp_CacheFillsFromPrimary() {
+        String id = createTask("Через кэш").jsonPath().getString("id");
+        replicaCaughtUp();
+
+        given()
+                .when()
+                .get(getBaseUrl() + "/" + id)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("id", equalTo(id));
+    }
+}
@@ -1,23 +1,47 @@
 package ru.hits.todobackend.controllersTests;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.test.context.ActiveProfiles;
+import ru.hits.todobackend.config.WireFormatConfiguration;
+import ru.hits.todobackend.dto.BulkUpdateTaskDTO;
 import ru.hits.todobackend.dto.CreateTaskDTO;
 import ru.hits.todobackend.dto.TaskDTO;
 import ru.hits.todobackend.dto.UpdateTaskDTO;
 import ru.hits.todobackend.entities.enum_entities.Priority;
-
+import ru.hits.todobackend.services.DeadlineCheckService;
+import ru.hits.todobackend.testsupport.SqlStatementRecorder;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.*;
@@ -25,11 +49,16 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @ActiveProfiles("test")
+// без неё тестовый контекст не поднимает реестр Prometheus и /actuator/prometheus
+@AutoConfigureObservability
 class TaskControllerTests {
 
     @LocalServerPort
     private int port;
 
+    @Autowired
+    private DeadlineCheckService deadlineCheckService;
+
     private String getBaseUrl() {
         return "http://localhost:" + port + "/api/tasks";
     }
@@ -655,6 +684,637 @@ class TaskControllerTests {
         }
     }
 
+    @ParameterizedTest
+    @CsvSource({
+            "CREATED_AT, ASC",
+            "UPDATED_AT, DESC",
+            "TITLE, ASC",
+            "STATUS, DESC",
+            "PRIORITY, ASC",
+            "DEADLINE, DESC"
+    })
+    @DisplayName("Постраничный обход курсором должен вернуть все задачи ровно по одному разу")
+    void getAllTasks_CursorPagination_ShouldReturnEveryTaskOnce(String sortBy, String direction) {
+        for (int i = 0; i < 5; i++) {
+            CreateTaskDTO dto = new CreateTaskDTO();
+            dto.setTitle("Задача для пагинации " + i);
+            if (i % 2 == 0) {
+                dto.setDeadline(OffsetDateTime.now().plusDays(i + 1));
+            }
+            given().contentType(ContentType.JSON).body(dto).post(getBaseUrl());
+        }
+
+        List<String> expectedIds = given()
+                .queryParam("sortBy", sortBy)
+                .queryParam("direction", direction)
+                .when()
+                .get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getList("id");
+
+        List<String> pagedIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            var request = given()
+                    .queryParam("sortBy", sortBy)
+                    .queryParam("direction", direction)
+                    .queryParam("limit", 2);
+            if (cursor != null) {
+                request.queryParam("after", cursor);
+            }
+            Response response = request.when().get(getBaseUrl());
+            assertEquals(HttpStatus.OK.value(), response.statusCode());
+
+            List<String> page = response.jsonPath().getList("id");
+            assertTrue(page.size() <= 2);
+            pagedIds.addAll(page);
+            cursor = response.header("X-Next-Cursor");
+        } while (cursor != null);
+
+        Set<String> unique = new HashSet<>(pagedIds);
+        assertEquals(pagedIds.size(), unique.size(), "Курсор вернул задачу повторно");
+        assertEquals(new HashSet<>(expectedIds), unique);
+    }
+
+    @Test
+    @DisplayName("Некорректный курсор должен возвращать 400 BAD_REQUEST")
+    void getAllTasks_InvalidCursor_ShouldReturn400() {
+        given()
+                .queryParam("limit", 10)
+                .queryParam("after", "not-a-cursor")
+                .when()
+                .get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
 
+    @Test
+    @DisplayName("Курсор от другой сортировки должен возвращать 400 BAD_REQUEST")
+    void getAllTasks_CursorFromOtherSort_ShouldReturn400() {
+        for (int i = 0; i < 2; i++) {
+            CreateTaskDTO dto = new CreateTaskDTO();
+            dto.setTitle("Задача для курсора " + i);
+            given().contentType(ContentType.JSON).body(dto).post(getBaseUrl());
+        }
 
-}
\ No newline at end of file
+        String cursor = given()
+                .queryParam("sortBy", "TITLE")
+                .queryParam("limit", 1)
+                .when()
+                .get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .header("X-Next-Cursor");
+        assertNotNull(cursor);
+
+        given()
+                .queryParam("sortBy", "CREATED_AT")
+                .queryParam("limit", 1)
+                .queryParam("after", cursor)
+                .when()
+                .get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    @DisplayName("Выгрузка в NDJSON должна содержать по одной задаче на строку с учётом фильтров")
+    void exportTasks_Ndjson_ShouldStreamFilteredTasks() {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача для выгрузки");
+        dto.setPriority(Priority.LOW);
+        TaskDTO created = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+
+        String body = given()
+                .queryParam("priority", "LOW")
+                .queryParam("format", "NDJSON")
+                .when()
+                .get(getBaseUrl() + "/export")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(startsWith("application/x-ndjson"))
+                .extract()
+                .asString();
+
+        List<String> lines = body.lines().filter(line -> !line.isBlank()).collect(Collectors.toList());
+        assertTrue(lines.stream().anyMatch(line -> line.contains(created.getId().toString())));
+        assertTrue(lines.stream().allMatch(line -> line.startsWith("{") && line.contains("\"priority\":\"LOW\"")));
+    }
+
+    @Test
+    @DisplayName("Выгрузка в CSV должна начинаться с заголовка и экранировать запятые")
+    void exportTasks_Csv_ShouldEscapeFields() {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача, с запятой");
+        TaskDTO created = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+
+        String body = given()
+                .queryParam("format", "CSV")
+                .when()
+                .get(getBaseUrl() + "/export")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .contentType(startsWith("text/csv"))
+                .extract()
+                .asString();
+
+        List<String> lines = body.lines().collect(Collectors.toList());
+        assertEquals("id,title,description,status,priority,deadline,createdAt,updatedAt", lines.get(0));
+        String row = lines.stream()
+                .filter(line -> line.startsWith(created.getId().toString()))
+                .findFirst()
+                .orElseThrow();
+        assertTrue(row.startsWith(created.getId() + ",\"Задача, с запятой\",,ACTIVE,MEDIUM,,"));
+    }
+
+    @Test
+    @DisplayName("Пакетное создание должно вернуть результат по каждому элементу")
+    void createTasksBatch_MixedItems_ShouldReturnPerItemResults() {
+        CreateTaskDTO valid = new CreateTaskDTO();
+        valid.setTitle("!2 Пакетная задача");
+
+        CreateTaskDTO tooShort = new CreateTaskDTO();
+        tooShort.setTitle("abc");
+
+        CreateTaskDTO withoutTitle = new CreateTaskDTO();
+
+        List<Map<String, Object>> results = given()
+                .contentType(ContentType.JSON)
+                .body(List.of(valid, tooShort, withoutTitle))
+                .when()
+                .post(getBaseUrl() + "/batch")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getList("");
+
+        assertEquals(3, results.size());
+
+        Map<String, Object> created = (Map<String, Object>) results.get(0).get("task");
+        assertNotNull(created);
+        assertEquals("Пакетная задача", created.get("title"));
+        assertEquals("HIGH", created.get("priority"));
+        assertNull(results.get(0).get("error"));
+
+        assertNull(results.get(1).get("task"));
+        assertNotNull(results.get(1).get("error"));
+        assertNull(results.get(2).get("task"));
+        assertNotNull(results.get(2).get("error"));
+
+        given()
+                .when()
+                .get(getBaseUrl() + "/" + created.get("id"))
+                .then()
+                .statusCode(HttpStatus.OK.value());
+    }
+
+    @Test
+    @DisplayName("Невалидный элемент в середине пакета отклоняется по Bean Validation, соседние создаются")
+    void createTasksBatch_InvalidMiddleItem_ShouldBeRejectedAlone() {
+        CreateTaskDTO first = new CreateTaskDTO();
+        first.setTitle("Первая задача пакета");
+
+        CreateTaskDTO tooLong = new CreateTaskDTO();
+        tooLong.setTitle("Слишком длинный заголовок ".repeat(20));
+
+        CreateTaskDTO last = new CreateTaskDTO();
+        last.setTitle("Последняя задача пакета");
+
+        List<Map<String, Object>> results = given()
+                .contentType(ContentType.JSON)
+                .body(List.of(first, tooLong, last))
+                .when()
+                .post(getBaseUrl() + "/batch")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .extract()
+                .jsonPath()
+                .getList("");
+
+        assertEquals(3, results.size());
+        assertNotNull(results.get(0).get("task"));
+        assertNull(results.get(1).get("task"));
+        assertEquals(1, results.get(1).get("index"));
+        assertTrue(((String) results.get(1).get("error")).contains("'title'"));
+        assertNotNull(results.get(2).get("task"));
+        assertEquals("Последняя задача пакета", ((Map<String, Object>) results.get(2).get("task")).get("title"));
+    }
+
+    @Test
+    @DisplayName("Пустой пакет должен возвращать 400 BAD_REQUEST")
+    void createTasksBatch_Empty_ShouldReturn400() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(List.of())
+                .when()
+                .post(getBaseUrl() + "/batch")
+                .then()
+                .statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    @DisplayName("Проверка дедлайнов должна переводить просроченные ACTIVE-задачи в OVERDUE")
+    void checkOverdueTasks_ShouldMarkPastDeadlineTasksOverdue() {
+        CreateTaskDTO overdue = new CreateTaskDTO();
+        overdue.setTitle("Просроченная задача");
+        overdue.setDeadline(OffsetDateTime.now().minusDays(1));
+        TaskDTO overdueTask = given().contentType(ContentType.JSON).body(overdue).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+
+        CreateTaskDTO future = new CreateTaskDTO();
+        future.setTitle("Задача на будущее");
+        future.setDeadline(OffsetDateTime.now().plusDays(1));
+        TaskDTO futureTask = given().contentType(ContentType.JSON).body(future).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+
+        deadlineCheckService.checkOverdueTasks();
+
+        given().when().get(getBaseUrl() + "/" + overdueTask.getId())
+                .then().statusCode(HttpStatus.OK.value()).body("status", equalTo("OVERDUE"));
+        given().when().get(getBaseUrl() + "/" + futureTask.getId())
+                .then().statusCode(HttpStatus.OK.value()).body("status", equalTo("ACTIVE"));
+    }
+
+    @Test
+    @DisplayName("Задача должна стать OVERDUE в течение секунды после дедлайна без ожидания полной проверки")
+    void createTask_DeadlinePasses_ShouldBecomeOverdueQuickly() throws InterruptedException {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача с близким дедлайном");
+        dto.setDeadline(OffsetDateTime.now().plusSeconds(2));
+        TaskDTO task = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+
+        String status = "ACTIVE";
+        long giveUpAt = System.currentTimeMillis() + 5000;
+        while (!"OVERDUE".equals(status) && System.currentTimeMillis() < giveUpAt) {
+            Thread.sleep(250);
+            status = given().when().get(getBaseUrl() + "/" + task.getId()).then().extract().path("status");
+        }
+
+        assertEquals("OVERDUE", status);
+    }
+
+    @Test
+    @DisplayName("Повторное получение задачи по ID должно отдаваться из кэша и сбрасываться после изменения")
+    void getTaskById_Cached_ShouldBeInvalidatedOnUpdateAndToggle() {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Кэшируемая задача");
+        TaskDTO task = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+        String url = getBaseUrl() + "/" + task.getId();
+
+        long hitsBefore = given().get(getBaseUrl() + "/cache/stats").then().extract().jsonPath().getLong("hits");
+        given().get(url).then().statusCode(HttpStatus.OK.value()).contentType(ContentType.JSON);
+        given().get(url).then().statusCode(HttpStatus.OK.value()).body("title", equalTo("Кэшируемая задача"));
+        long hitsAfter = given().get(getBaseUrl() + "/cache/stats").then().extract().jsonPath().getLong("hits");
+        assertTrue(hitsAfter > hitsBefore);
+
+        UpdateTaskDTO update = new UpdateTaskDTO();
+        update.setTitle("Изменённая задача");
+        update.setPriority(Priority.HIGH);
+        given().contentType(ContentType.JSON).body(update).put(url + "/update").then().statusCode(HttpStatus.NO_CONTENT.value());
+        given().get(url).then().body("title", equalTo("Изменённая задача"));
+
+        given().patch(url + "/toggle").then().statusCode(HttpStatus.NO_CONTENT.value());
+        given().get(url).then().body("status", equalTo("COMPLETED"));
+
+        given().delete(url + "/delete").then().statusCode(HttpStatus.NO_CONTENT.value());
+        given().get(url).then().statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    @DisplayName("GET с q ищет по заголовку и описанию и отдаёт курсор следующей страницы")
+    void getAllTasks_WithQuery_ShouldReturnRankedPage() {
+        for (String title : List.of("Найти зонтик", "Зонтик починить", "Купить хлеба")) {
+            CreateTaskDTO dto = new CreateTaskDTO();
+            dto.setTitle(title);
+            given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().statusCode(HttpStatus.CREATED.value());
+        }
+
+        String cursor = given().queryParam("q", "зонтик").queryParam("limit", 1).get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("size()", equalTo(1))
+                .body("[0].title", containsStringIgnoringCase("зонтик"))
+                .header("X-Next-Cursor", notNullValue())
+                .extract().header("X-Next-Cursor");
+
+        given().queryParam("q", "зонтик").queryParam("limit", 1).queryParam("after", cursor).get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("size()", equalTo(1))
+                .body("[0].title", containsStringIgnoringCase("зонтик"));
+    }
+
+    @Test
+    @DisplayName("Массовые PUT /bulk/update и DELETE /bulk/delete применяются к задачам под фильтром и возвращают их число")
+    void bulkUpdateAndDelete_ShouldAffectFilteredTasks() {
+        OffsetDateTime from = OffsetDateTime.of(2099, 3, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < 3; i++) {
+            CreateTaskDTO dto = new CreateTaskDTO();
+            dto.setTitle("Массовая задача " + i);
+            dto.setPriority(Priority.LOW);
+            dto.setDeadline(from.plusHours(i));
+            given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().statusCode(HttpStatus.CREATED.value());
+        }
+        String deadlineFrom = from.toString();
+        String deadlineTo = from.plusDays(1).toString();
+
+        BulkUpdateTaskDTO changes = new BulkUpdateTaskDTO();
+        changes.setPriority(Priority.HIGH);
+        given().contentType(ContentType.JSON).body(changes)
+                .queryParam("deadlineFrom", deadlineFrom).queryParam("deadlineTo", deadlineTo)
+                .put(getBaseUrl() + "/bulk/update")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("affected", equalTo(3));
+
+        given().queryParam("priority", "HIGH").queryParam("deadlineFrom", deadlineFrom).queryParam("deadlineTo", deadlineTo)
+                .delete(getBaseUrl() + "/bulk/delete")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("affected", equalTo(3));
+
+        given().delete(getBaseUrl() + "/bulk/delete").then().statusCode(HttpStatus.BAD_REQUEST.value());
+    }
+
+    @Test
+    @DisplayName("PATCH меняет только переданные поля, проверяет If-Match и отвечает 404 на несуществующую задачу")
+    void patchTask_ShouldChangeOnlyProvidedFields() {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача для PATCH");
+        dto.setDescription("Исходное описание");
+        dto.setPriority(Priority.HIGH);
+        TaskDTO task = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+        String url = getBaseUrl() + "/" + task.getId();
+        String staleEtag = given().get(url).then().extract().header("ETag");
+
+        UpdateTaskDTO title = new UpdateTaskDTO();
+        title.setTitle("Новый заголовок");
+        given().contentType(ContentType.JSON).body(title).patch(url).then().statusCode(HttpStatus.NO_CONTENT.value());
+        String etag = given().get(url)
+                .then()
+                .body("title", equalTo("Новый заголовок"))
+                .body("description", equalTo("Исходное описание"))
+                .body("priority", equalTo("HIGH"))
+                .extract().header("ETag");
+        assertNotEquals(staleEtag, etag);
+
+        UpdateTaskDTO priority = new UpdateTaskDTO();
+        priority.setPriority(Priority.LOW);
+        given().contentType(ContentType.JSON).body(priority).header("If-Match", staleEtag).patch(url)
+                .then().statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        given().contentType(ContentType.JSON).body(priority).header("If-Match", etag).patch(url)
+                .then().statusCode(HttpStatus.NO_CONTENT.value());
+        given().get(url).then().body("priority", equalTo("LOW")).body("title", equalTo("Новый заголовок"));
+
+        given().contentType(ContentType.JSON).body(new UpdateTaskDTO()).patch(url).then().statusCode(HttpStatus.BAD_REQUEST.value());
+        given().contentType(ContentType.JSON).body(title).patch(getBaseUrl() + "/" + UUID.randomUUID())
+                .then().statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    /**
+     * Выполняет HTTP-вызов и проверяет, что он уложился ровно в {@code budget} SQL-стейтментов.
+     */
+    private void assertStatements(int budget, Runnable call) {
+        try (SqlStatementRecorder.Recording sql = SqlStatementRecorder.start()) {
+            call.run();
+            assertEquals(budget, sql.count(), sql::describe);
+        }
+    }
+
+    @Test
+    @DisplayName("Жизненный цикл задачи укладывается в бюджет SQL-стейтментов на каждый вызов")
+    void taskLifecycle_ShouldStayWithinStatementBudget() {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача под бюджетом");
+        dto.setDeadline(OffsetDateTime.now().plusDays(3));
+        UpdateTaskDTO update = new UpdateTaskDTO();
+        update.setTitle("Задача под бюджетом 2");
+        update.setPriority(Priority.HIGH);
+
+        TaskDTO[] task = new TaskDTO[1];
+        assertStatements(1, () -> task[0] = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl())
+                .then().statusCode(HttpStatus.CREATED.value()).extract().as(TaskDTO.class));
+        String url = getBaseUrl() + "/" + task[0].getId();
+
+        // промах кэша читает задачу, попадание отдаёт готовые байты
+        assertStatements(1, () -> given().get(url).then().statusCode(HttpStatus.OK.value()));
+        assertStatements(0, () -> given().get(url).then().statusCode(HttpStatus.OK.value()));
+        // один условный UPDATE, прежнее состояние для событий возвращает он же
+        assertStatements(1, () -> given().patch(url + "/toggle").then().statusCode(HttpStatus.NO_CONTENT.value()));
+        // find + merge: PUT читает сущность целиком, как и до бюджетов
+        assertStatements(2, () -> given().contentType(ContentType.JSON).body(update).put(url + "/update")
+                .then().statusCode(HttpStatus.NO_CONTENT.value()));
+        // PATCH текста — один UPDATE без чтения; смена приоритета сначала читает прежнее состояние
+        UpdateTaskDTO description = new UpdateTaskDTO();
+        description.setDescription("Только описание");
+        assertStatements(1, () -> given().contentType(ContentType.JSON).body(description).patch(url)
+                .then().statusCode(HttpStatus.NO_CONTENT.value()));
+        UpdateTaskDTO priority = new UpdateTaskDTO();
+        priority.setPriority(Priority.LOW);
+        assertStatements(2, () -> given().contentType(ContentType.JSON).body(priority).patch(url)
+                .then().statusCode(HttpStatus.NO_CONTENT.value()));
+        // DELETE, возвращающий удалённую строку, + tombstone
+        assertStatements(2, () -> given().delete(url + "/delete").then().statusCode(HttpStatus.NO_CONTENT.value()));
+        assertStatements(1, () -> given().patch(url + "/toggle").then().statusCode(HttpStatus.NOT_FOUND.value()));
+    }
+
+    @Test
+    @DisplayName("Списки и счётчики не делают запрос на каждую задачу")
+    void listEndpoints_ShouldNotIssueStatementPerTask() {
+        for (int i = 0; i < 3; i++) {
+            CreateTaskDTO dto = new CreateTaskDTO();
+            dto.setTitle("Задача списка " + i);
+            given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().statusCode(HttpStatus.CREATED.value());
+        }
+
+        assertStatements(1, () -> given().queryParam("priority", "MEDIUM").get(getBaseUrl()).then().statusCode(HttpStatus.OK.value()));
+        assertStatements(1, () -> given().queryParam("limit", 2).get(getBaseUrl()).then().statusCode(HttpStatus.OK.value()));
+        // без PostgreSQL первый поиск ещё дочитывает новые задачи в индекс в памяти — его не меряем
+        given().queryParam("q", "списка").get(getBaseUrl()).then().statusCode(HttpStatus.OK.value());
+        assertStatements(1, () -> given().queryParam("q", "списка").get(getBaseUrl()).then().statusCode(HttpStatus.OK.value()));
+        // изменённые задачи + журнал удалений
+        assertStatements(2, () -> given().get(getBaseUrl() + "/changes").then().statusCode(HttpStatus.OK.value()));
+        // счётчики живут в памяти
+        assertStatements(0, () -> given().get(getBaseUrl() + "/stats").then().statusCode(HttpStatus.OK.value()));
+    }
+
+    @Test
+    @DisplayName("/actuator/prometheus отдаёт гистограммы эндпоинтов, метрики Hibernate, пула и планировщика")
+    void prometheusEndpoint_ShouldExposeApplicationMetrics() {
+        given().get(getBaseUrl()).then().statusCode(HttpStatus.OK.value());
+        deadlineCheckService.checkOverdueTasks();
+
+        given().get("http://localhost:" + port + "/actuator/prometheus")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body(containsString("http_server_requests_seconds_bucket{"))
+                .body(containsString("uri=\"/api/tasks\""))
+                .body(containsString("todo_hibernate_session_statements_bucket{"))
+                .body(containsString("hibernate_query_executions_total"))
+                .body(containsString("hikaricp_connections_active"))
+                .body(containsString("todo_deadline_sweep_seconds_count"))
+                .body(containsString("todo_deadline_transitions_total"));
+    }
+
+    @Test
+    @DisplayName("GET /stats отдаёт счётчики по статусам и приоритетам, учитывающие только что созданную задачу")
+    void getTaskStats_ShouldCountCreatedTask() {
+        long totalBefore = given().get(getBaseUrl() + "/stats").then().extract().jsonPath().getLong("total");
+
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача для счётчиков");
+        dto.setPriority(Priority.LOW);
+        given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().statusCode(HttpStatus.CREATED.value());
+
+        given().get(getBaseUrl() + "/stats")
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("total", equalTo((int) totalBefore + 1))
+                .body("byStatusAndPriority.ACTIVE.LOW", greaterThanOrEqualTo(1))
+                .body("dueToday", greaterThanOrEqualTo(0));
+    }
+
+    @Test
+    @DisplayName("Повторный запрос с If-None-Match должен вернуть 304 без тела, пока задача не изменилась")
+    void getTaskById_IfNoneMatch_ShouldReturn304UntilChanged() {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача с ETag");
+        TaskDTO task = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+        String url = getBaseUrl() + "/" + task.getId();
+
+        String etag = given().get(url).then().statusCode(HttpStatus.OK.value()).extract().header("ETag");
+        assertNotNull(etag);
+
+        given().header("If-None-Match", etag).get(url)
+                .then()
+                .statusCode(HttpStatus.NOT_MODIFIED.value())
+                .header("ETag", equalTo(etag))
+                .body(emptyString());
+
+        given().patch(url + "/toggle").then().statusCode(HttpStatus.NO_CONTENT.value());
+
+        String newEtag = given().header("If-None-Match", etag).get(url)
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .body("status", equalTo("COMPLETED"))
+                .extract().header("ETag");
+        assertNotEquals(etag, newEtag);
+    }
+
+    @Test
+    @DisplayName("Изменение с устаревшим If-Match должно вернуть 412, с актуальным — пройти")
+    void mutations_IfMatch_ShouldRequireCurrentVersion() {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача с If-Match");
+        TaskDTO task = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+        String url = getBaseUrl() + "/" + task.getId();
+        String staleEtag = given().get(url).then().extract().header("ETag");
+
+        UpdateTaskDTO update = new UpdateTaskDTO();
+        update.setTitle("Задача изменена");
+        update.setPriority(Priority.LOW);
+        given().header("If-Match", staleEtag).contentType(ContentType.JSON).body(update).put(url + "/update")
+                .then().statusCode(HttpStatus.NO_CONTENT.value());
+
+        given().header("If-Match", staleEtag).contentType(ContentType.JSON).body(update).put(url + "/update")
+                .then().statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        given().header("If-Match", staleEtag).patch(url + "/toggle")
+                .then().statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        given().header("If-Match", staleEtag).delete(url + "/delete")
+                .then().statusCode(HttpStatus.PRECONDITION_FAILED.value());
+        given().header("If-Match", "W/" + staleEtag).patch(url + "/toggle")
+                .then().statusCode(HttpStatus.PRECONDITION_FAILED.value());
+
+        String currentEtag = given().get(url).then().body("title", equalTo("Задача изменена")).extract().header("ETag");
+        given().header("If-Match", currentEtag).patch(url + "/toggle")
+                .then().statusCode(HttpStatus.NO_CONTENT.value());
+        given().header("If-Match", "*").delete(url + "/delete")
+                .then().statusCode(HttpStatus.NO_CONTENT.value());
+        given().header("If-Match", currentEtag).delete(url + "/delete")
+                .then().statusCode(HttpStatus.NOT_FOUND.value());
+    }
+
+    @Test
+    @DisplayName("Подписчик на /events должен получить событие о создании и удалении задачи")
+    void streamTaskEvents_ShouldPushCreateAndDelete() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(getBaseUrl() + "/events"))
+                .header("Accept", "text/event-stream")
+                .build();
+        HttpResponse<Stream<String>> response = client.sendAsync(request, HttpResponse.BodyHandlers.ofLines())
+                .get(10, TimeUnit.SECONDS);
+        assertEquals(HttpStatus.OK.value(), response.statusCode());
+
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача из ленты");
+        TaskDTO task = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+        given().delete(getBaseUrl() + "/" + task.getId() + "/delete").then().statusCode(HttpStatus.NO_CONTENT.value());
+
+        List<String> eventNames = assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            List<String> names = new ArrayList<>();
+            Iterator<String> lines = response.body().iterator();
+            String event = null;
+            while (names.size() < 2 && lines.hasNext()) {
+                String line = lines.next();
+                if (line.startsWith("event:")) {
+                    event = line.substring("event:".length());
+                } else if (line.startsWith("data:") && line.contains(task.getId().toString())) {
+                    names.add(event);
+                }
+            }
+            return names;
+        });
+        response.body().close();
+
+        assertEquals(List.of("created", "deleted"), eventNames);
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @CsvSource({"application/cbor", "application/x-jackson-smile"})
+    @DisplayName("Список задач в двоичном формате: даты — миллисекунды, enum'ы — порядковые номера")
+    void getAllTasks_BinaryFormat_ShouldUseCompactEncoding(String mediaType) throws Exception {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача в CBOR");
+        dto.setPriority(Priority.HIGH);
+        TaskDTO created = given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().extract().as(TaskDTO.class);
+
+        Response response = given().accept(mediaType).get(getBaseUrl() + "?sortBy=CREATED_AT&direction=DESC&limit=5");
+        assertEquals(HttpStatus.OK.value(), response.statusCode());
+        assertTrue(response.contentType().startsWith(mediaType));
+
+        ObjectMapper mapper = WireFormatConfiguration.compact(mediaType.contains("cbor")
+                ? Jackson2ObjectMapperBuilder.cbor() : Jackson2ObjectMapperBuilder.smile());
+        // UUID в двоичных форматах — 16 байт, а не строка, поэтому ищем задачу по декодированному списку
+        TaskDTO[] decoded = mapper.readValue(response.asByteArray(), TaskDTO[].class);
+        int index = List.of(decoded).stream().map(TaskDTO::getId).toList().indexOf(created.getId());
+        assertTrue(index >= 0);
+        assertEquals(Priority.HIGH, decoded[index].getPriority());
+        assertEquals(created.getCreatedAt().toInstant().toEpochMilli(),
+                decoded[index].getCreatedAt().toInstant().toEpochMilli());
+
+        JsonNode task = mapper.readTree(response.asByteArray()).get(index);
+        assertTrue(task.get("id").isBinary());
+        assertTrue(task.get("priority").isInt());
+        assertEquals(Priority.HIGH.ordinal(), task.get("priority").asInt());
+        assertTrue(task.get("createdAt").isIntegralNumber());
+    }
+
+    @Test
+    @DisplayName("Большой JSON-список должен сжиматься gzip, если клиент его принимает")
+    void getAllTasks_AcceptGzip_ShouldCompressJson() {
+        for (int i = 0; i < 20; i++) {
+            CreateTaskDTO dto = new CreateTaskDTO();
+            dto.setTitle("Задача для gzip " + i);
+            given().contentType(ContentType.JSON).body(dto).post(getBaseUrl()).then().statusCode(HttpStatus.CREATED.value());
+        }
+
+        given().header("Accept-Encoding", "gzip").get(getBaseUrl())
+                .then()
+                .statusCode(HttpStatus.OK.value())
+                .header("Content-Encoding", equalTo("gzip"))
+                .body("size()", greaterThanOrEqualTo(20));
+    }
+}
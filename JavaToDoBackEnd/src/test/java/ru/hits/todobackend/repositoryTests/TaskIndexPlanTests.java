@@ -0,0 +1,229 @@
+package ru.hits.todobackend.repositoryTests;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.dto.TaskChangesDTO;
+import ru.hits.todobackend.dto.TaskPageDTO;
+import ru.hits.todobackend.entities.enum_entities.SortDirection;
+import ru.hits.todobackend.entities.enum_entities.SortField;
+import ru.hits.todobackend.repository.TaskRepository;
+import ru.hits.todobackend.services.DeadlineCheckService;
+import ru.hits.todobackend.services.TaskService;
+import ru.hits.todobackend.services.TaskSyncService;
+import ru.hits.todobackend.testsupport.SqlStatementRecorder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Проверяет по EXPLAIN, что запросы к tasks идут по индексам, а не полным сканом. Объясняется
+ * ровно тот SQL, который Hibernate отправил при вызове сервиса или репозитория: он записывается
+ * {@link SqlStatementRecorder}. Параметры не подставляются — план строится для запроса
+ * с параметрами: H2 выбирает его при подготовке стейтмента, PostgreSQL — через
+ * {@code EXPLAIN (GENERIC_PLAN)} (нужен PostgreSQL 16+). На PostgreSQL seq scan запрещается
+ * на время запроса: на маленькой тестовой таблице планировщик иначе честно выбрал бы его,
+ * и тест ничего бы не проверял.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskIndexPlanTests {
+
+    private static final String PRIMARY_KEY = "primary_key|tasks_pkey";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private boolean postgres;
+
+    @BeforeEach
+    void detectDatabase() {
+        postgres = Boolean.TRUE.equals(jdbcTemplate.execute(
+                (java.sql.Connection connection) -> connection.getMetaData().getDatabaseProductName().contains("PostgreSQL")));
+    }
+
+    private void createTasks() {
+        for (int i = 0; i < 3; i++) {
+            CreateTaskDTO dto = new CreateTaskDTO();
+            dto.setTitle("План запроса " + i);
+            if (i % 2 == 0) {
+                dto.setDeadline(OffsetDateTime.now().plusDays(i + 1));
+            }
+            taskService.createTask(dto);
+        }
+    }
+
+    @ParameterizedTest(name = "{0} {1}")
+    @CsvSource({
+            "CREATED_AT, ASC, idx_tasks_creation",
+            "UPDATED_AT, DESC, idx_tasks_update",
+            "TITLE, ASC, idx_tasks_title",
+            "TITLE, DESC, idx_tasks_title",
+            "DEADLINE, ASC, idx_tasks_deadline_id",
+            "DEADLINE, DESC, idx_tasks_deadline_id",
+            "STATUS, ASC, idx_tasks_status_id",
+            "PRIORITY, DESC, idx_tasks_priority_id"
+    })
+    @DisplayName("Первая и следующая страницы списка должны идти по индексу поля сортировки")
+    void getTasksPage_ShouldUseSortIndex(SortField sortBy, SortDirection direction, String expectedIndex) {
+        createTasks();
+
+        List<String> firstPage;
+        TaskPageDTO page;
+        try (SqlStatementRecorder.Recording sql = SqlStatementRecorder.start()) {
+            page = taskService.getTasksPage(null, null, null, null, sortBy, direction, 1, null);
+            firstPage = sql.statements();
+        }
+        assertNotNull(page.getNextCursor());
+
+        List<String> nextPage;
+        try (SqlStatementRecorder.Recording sql = SqlStatementRecorder.start()) {
+            taskService.getTasksPage(null, null, null, null, sortBy, direction, TaskService.MAX_PAGE_SIZE,
+                    page.getNextCursor());
+            nextPage = sql.statements();
+        }
+
+        // nullable-поле дочитывает страницу из NULL-хвоста вторым запросом — по тому же индексу
+        assertUsesIndexes("первая страница " + sortBy + " " + direction, firstPage, expectedIndex);
+        assertUsesIndexes("страница по курсору " + sortBy + " " + direction, nextPage, expectedIndex);
+    }
+
+    @Test
+    @DisplayName("Сверка дедлайнов должна забирать и обновлять пачку по индексам")
+    void markOverdueChunk_ShouldUseDeadlineIndex() {
+        OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+        // те же два стейтмента, что отправляет markOverdueChunk; UPDATE вызывается сам, чтобы он был
+        // и тогда, когда фоновая сверка уже забрала все просроченные задачи
+        List<String> statements;
+        try (SqlStatementRecorder.Recording sql = SqlStatementRecorder.start()) {
+            transactionTemplate.executeWithoutResult(status -> {
+                taskRepository.claimOverdueChunk(now, DeadlineCheckService.SWEEP_CHUNK_SIZE);
+                taskRepository.markOverdue(List.of(UUID.randomUUID()), now);
+            });
+            statements = sql.statements();
+        }
+
+        // UPDATE по списку id: PostgreSQL идёт по первичному ключу, H2 — по (status, deadline_date)
+        assertUsesIndexes("сверка дедлайнов", statements,
+                "idx_tasks_status_deadline|idx_tasks_active_deadline", PRIMARY_KEY + "|idx_tasks_status_deadline");
+    }
+
+    @Test
+    @DisplayName("Дельта-синхронизация должна читать задачи и журнал удалений по keyset-индексам")
+    void getChanges_ShouldUseKeysetIndexes() {
+        createTasks();
+
+        List<String> firstRequest;
+        TaskChangesDTO changes;
+        try (SqlStatementRecorder.Recording sql = SqlStatementRecorder.start()) {
+            changes = taskSyncService.getChanges(null, 1);
+            firstRequest = sql.statements();
+        }
+
+        List<String> nextRequest;
+        try (SqlStatementRecorder.Recording sql = SqlStatementRecorder.start()) {
+            taskSyncService.getChanges(changes.getNextToken(), 1);
+            nextRequest = sql.statements();
+        }
+
+        assertUsesIndexes("первый запрос синхронизации", firstRequest,
+                "idx_tasks_update", "idx_task_deletions_deleted");
+        assertUsesIndexes("запрос синхронизации по токену", nextRequest,
+                "idx_tasks_update", "idx_task_deletions_deleted");
+    }
+
+    /**
+     * @param expectedIndexes для каждого записанного стейтмента по порядку — допустимые индексы
+     *                        через «|»; если ожиданий меньше, чем стейтментов, последнее повторяется
+     */
+    private void assertUsesIndexes(String shape, List<String> statements, String... expectedIndexes) {
+        assertFalse(statements.isEmpty(), () -> "Не записано ни одного запроса для «" + shape + "»");
+        if (expectedIndexes.length > 1) {
+            assertEquals(expectedIndexes.length, statements.size(),
+                    () -> "Неожиданный набор запросов для «" + shape + "»: " + statements);
+        }
+        for (int i = 0; i < statements.size(); i++) {
+            String sql = statements.get(i);
+            String expected = expectedIndexes[Math.min(i, expectedIndexes.length - 1)];
+            String plan = explain(sql).toLowerCase();
+
+            assertFalse(plan.contains("seq scan") || plan.contains("tablescan"),
+                    () -> "Полный скан для запроса «" + shape + "»:\n" + sql + "\n" + plan);
+            assertTrue(List.of(expected.split("\\|")).stream().anyMatch(plan::contains),
+                    () -> "Ожидался индекс " + expected + " для запроса «" + shape + "»:\n" + sql + "\n" + plan);
+        }
+    }
+
+    private String explain(String sql) {
+        if (!postgres) {
+            return jdbcTemplate.execute((java.sql.Connection connection) -> {
+                try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                    for (int i = 1; i <= statement.getParameterMetaData().getParameterCount(); i++) {
+                        statement.setObject(i, null);
+                    }
+                    return lines(statement.executeQuery());
+                }
+            });
+        }
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.execute("SET LOCAL enable_seqscan = off");
+            return String.join("\n", jdbcTemplate.queryForList(
+                    "EXPLAIN (GENERIC_PLAN) " + numberedParameters(sql), String.class));
+        });
+    }
+
+    private static String lines(ResultSet resultSet) throws java.sql.SQLException {
+        List<String> lines = new ArrayList<>();
+        while (resultSet.next()) {
+            lines.add(resultSet.getString(1));
+        }
+        return String.join("\n", lines);
+    }
+
+    /**
+     * JDBC-плейсхолдеры «?» в нумерованные «$n»: так их понимает EXPLAIN (GENERIC_PLAN).
+     */
+    private static String numberedParameters(String sql) {
+        StringBuilder numbered = new StringBuilder();
+        int parameter = 0;
+        for (char c : sql.toCharArray()) {
+            if (c == '?') {
+                numbered.append('$').append(++parameter);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+}
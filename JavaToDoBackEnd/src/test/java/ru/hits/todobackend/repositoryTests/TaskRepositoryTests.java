@@ -0,0 +1,116 @@
+package ru.hits.todobackend.repositoryTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskState;
+import ru.hits.todobackend.repository.TaskRepository;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskRepositoryTests {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        taskRepository.deleteAllById(created);
+    }
+
+    private Task saveTask(Status status, OffsetDateTime deadline) {
+        Task task = new Task();
+        task.setTitle("Задача репозитория");
+        task.setPriority(Priority.MEDIUM);
+        task.setStatus(status);
+        task.setDeadline(deadline);
+        Task saved = taskRepository.save(task);
+        created.add(saved.getId());
+        return saved;
+    }
+
+    @ParameterizedTest(name = "{0} → {2}")
+    @CsvSource({
+            "ACTIVE, 1, COMPLETED",
+            "COMPLETED, 1, ACTIVE",
+            "COMPLETED, -1, OVERDUE",
+            "OVERDUE, -1, LATE",
+            "LATE, -1, OVERDUE"
+    })
+    @DisplayName("Переключение статуса одним UPDATE")
+    void toggleStatus_SwitchesStatus(Status from, int deadlineInDays, Status expected) {
+        Task task = saveTask(from, OffsetDateTime.now().plusDays(deadlineInDays));
+        OffsetDateTime now = OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC);
+
+        // прежнее состояние приходит из самого UPDATE
+        assertEquals(from, taskRepository.toggleStatus(task.getId(), now, null).orElseThrow().status());
+
+        Task toggled = taskRepository.findById(task.getId()).orElseThrow();
+        assertEquals(expected, toggled.getStatus());
+        // счётчики статистики вычисляют итог переключения в Java — переходы должны совпадать
+        assertEquals(expected, TaskState.of(task).toggled(now).status());
+        assertFalse(toggled.getUpdatedAt().isBefore(now.truncatedTo(ChronoUnit.MICROS)));
+    }
+
+    @Test
+    @DisplayName("Задача без дедлайна из COMPLETED возвращается в ACTIVE")
+    void toggleStatus_CompletedWithoutDeadline_BecomesActive() {
+        Task task = saveTask(Status.COMPLETED, null);
+
+        taskRepository.toggleStatus(task.getId(), OffsetDateTime.now(), null);
+
+        assertEquals(Status.ACTIVE, taskRepository.findById(task.getId()).orElseThrow().getStatus());
+    }
+
+    @Test
+    @DisplayName("Переключение и удаление несуществующей задачи не затрагивают строк")
+    void toggleAndDelete_Missing_ReturnEmpty() {
+        assertTrue(taskRepository.toggleStatus(UUID.randomUUID(), OffsetDateTime.now(), null).isEmpty());
+        assertTrue(taskRepository.deleteTaskById(UUID.randomUUID(), null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Удаление одним DELETE возвращает состояние удалённой задачи")
+    void deleteTaskById_Existing_ReturnsPreviousState() {
+        Task task = saveTask(Status.LATE, OffsetDateTime.now().minusDays(1).truncatedTo(ChronoUnit.MICROS));
+
+        TaskState deleted = taskRepository.deleteTaskById(task.getId(), null).orElseThrow();
+        assertEquals(Status.LATE, deleted.status());
+        assertEquals(Priority.MEDIUM, deleted.priority());
+        assertTrue(deleted.deadline().isEqual(task.getDeadline()));
+        assertFalse(taskRepository.existsById(task.getId()));
+    }
+
+    @Test
+    @DisplayName("Переключение и удаление с ожидаемой версией срабатывают только при её совпадении")
+    void toggleAndDelete_ExpectedVersion_MustMatch() {
+        Task task = saveTask(Status.ACTIVE, null);
+        long version = task.getVersion();
+
+        assertTrue(taskRepository.toggleStatus(task.getId(), OffsetDateTime.now(), version + 1).isEmpty());
+        assertTrue(taskRepository.toggleStatus(task.getId(), OffsetDateTime.now(), version).isPresent());
+        assertEquals(version + 1, taskRepository.findById(task.getId()).orElseThrow().getVersion());
+
+        assertTrue(taskRepository.deleteTaskById(task.getId(), version).isEmpty());
+        assertTrue(taskRepository.deleteTaskById(task.getId(), version + 1).isPresent());
+    }
+}
@@ -0,0 +1,229 @@
+package ru.hits.todobackend.servicesTests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangeType;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TaskState;
+import ru.hits.todobackend.events.TasksMarkedOverdueEvent;
+import ru.hits.todobackend.repository.TaskDeadlineView;
+import ru.hits.todobackend.repository.TaskRepository;
+import ru.hits.todobackend.services.DeadlineCheckService;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DeadlineCheckServiceTests {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @InjectMocks
+    private DeadlineCheckService deadlineCheckService;
+
+    @Test
+    @DisplayName("Просроченные задачи переводятся одним UPDATE без загрузки сущностей")
+    void markOverdueTasks_SingleChunk() {
+        OffsetDateTime now = OffsetDateTime.now();
+        when(taskRepository.markOverdueChunk(now, DeadlineCheckService.SWEEP_CHUNK_SIZE)).thenReturn(3);
+
+        assertEquals(3, deadlineCheckService.markOverdueTasks(now));
+
+        verify(taskRepository, times(1)).markOverdueChunk(now, DeadlineCheckService.SWEEP_CHUNK_SIZE);
+        verify(taskRepository, never()).findAll(any(Specification.class));
+        verify(taskRepository, never()).saveAll(any());
+    }
+
+    @Test
+    @DisplayName("Большой бэклог обрабатывается пачками, пока пачка заполнена целиком")
+    void markOverdueTasks_LargeBacklog_ProcessedInChunks() {
+        OffsetDateTime now = OffsetDateTime.now();
+        int chunk = DeadlineCheckService.SWEEP_CHUNK_SIZE;
+        when(taskRepository.markOverdueChunk(eq(now), eq(chunk))).thenReturn(chunk, chunk, 7);
+
+        assertEquals(2 * chunk + 7, deadlineCheckService.markOverdueTasks(now));
+
+        verify(taskRepository, times(3)).markOverdueChunk(now, chunk);
+    }
+
+    @Test
+    @DisplayName("Нет просроченных задач — один запрос и ноль обновлений")
+    void markOverdueTasks_NothingDue() {
+        OffsetDateTime now = OffsetDateTime.now();
+        when(taskRepository.markOverdueChunk(now, DeadlineCheckService.SWEEP_CHUNK_SIZE)).thenReturn(0);
+
+        assertEquals(0, deadlineCheckService.markOverdueTasks(now));
+        verify(taskRepository, times(1)).markOverdueChunk(now, DeadlineCheckService.SWEEP_CHUNK_SIZE);
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    @DisplayName("Сверка и индекс сообщают о переведённых в OVERDUE задачах")
+    void markOverdue_PublishesEvents() {
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID dueId = UUID.randomUUID();
+        when(taskRepository.markOverdueChunk(now, DeadlineCheckService.SWEEP_CHUNK_SIZE)).thenReturn(2);
+        when(taskRepository.findActiveDeadlinesBefore(any())).thenReturn(List.of(deadlineView(dueId, now.minusSeconds(1))));
+        when(taskRepository.markOverdue(eq(List.of(dueId)), any())).thenReturn(1);
+
+        deadlineCheckService.markOverdueTasks(now);
+        deadlineCheckService.reloadIndex(now);
+        deadlineCheckService.flipDueTasks();
+
+        verify(eventPublisher).publishEvent(argThat((Object e) ->
+                e instanceof TasksMarkedOverdueEvent event && event.isSweep() && event.getCount() == 2));
+        verify(eventPublisher).publishEvent(argThat((Object e) ->
+                e instanceof TasksMarkedOverdueEvent event && List.of(dueId).equals(event.getTaskIds())));
+    }
+
+    @Test
+    @DisplayName("Переводы в OVERDUE считаются по источнику, а бэклог индекса виден до flipDueTasks")
+    void metrics_CountTransitionsAndBacklog() {
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID dueId = UUID.randomUUID();
+        when(taskRepository.markOverdueChunk(now, DeadlineCheckService.SWEEP_CHUNK_SIZE)).thenReturn(4);
+        when(taskRepository.findActiveDeadlinesBefore(any())).thenReturn(List.of(
+                deadlineView(dueId, now.minusSeconds(1)),
+                deadlineView(UUID.randomUUID(), now.plusMinutes(30))
+        ));
+        when(taskRepository.markOverdue(eq(List.of(dueId)), any())).thenReturn(1);
+
+        deadlineCheckService.markOverdueTasks(now);
+        deadlineCheckService.reloadIndex(now);
+        assertEquals(2, meterRegistry.get("todo.deadline.index.size").gauge().value());
+        assertEquals(1, meterRegistry.get("todo.deadline.backlog").gauge().value());
+
+        deadlineCheckService.flipDueTasks();
+
+        assertEquals(4, meterRegistry.get("todo.deadline.transitions").tag("source", "sweep").counter().count());
+        assertEquals(1, meterRegistry.get("todo.deadline.transitions").tag("source", "index").counter().count());
+        assertEquals(0, meterRegistry.get("todo.deadline.backlog").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Индекс дедлайнов переводит задачу в OVERDUE сразу после наступления дедлайна")
+    void flipDueTasks_IndexedDeadlinePassed_MarksTaskOverdue() {
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID dueId = UUID.randomUUID();
+        UUID laterId = UUID.randomUUID();
+        when(taskRepository.findActiveDeadlinesBefore(any())).thenReturn(List.of(
+                deadlineView(dueId, now.minusSeconds(1)),
+                deadlineView(laterId, now.plusMinutes(30))
+        ));
+        deadlineCheckService.reloadIndex(now);
+
+        deadlineCheckService.flipDueTasks();
+
+        verify(taskRepository).markOverdue(eq(List.of(dueId)), any());
+        verifyNoMoreInteractions(ignoreStubs(taskRepository));
+    }
+
+    @Test
+    @DisplayName("Пустой индекс не обращается к базе")
+    void flipDueTasks_NothingDue_NoDatabaseCalls() {
+        deadlineCheckService.flipDueTasks();
+
+        verifyNoInteractions(taskRepository);
+    }
+
+    @Test
+    @DisplayName("Изменения задач обновляют индекс: новая ACTIVE-задача попадает, завершённая и удалённая выпадают")
+    void onTaskChanged_UpdatesIndex() {
+        when(taskRepository.findActiveDeadlinesBefore(any())).thenReturn(List.of());
+        deadlineCheckService.reloadIndex(OffsetDateTime.now());
+
+        UUID activeId = UUID.randomUUID();
+        UUID completedId = UUID.randomUUID();
+        UUID deletedId = UUID.randomUUID();
+        OffsetDateTime passed = OffsetDateTime.now().minusSeconds(1);
+
+        deadlineCheckService.onTaskChanged(new TaskChangedEvent(TaskChangeType.CREATED, activeId, null, active(passed)));
+        deadlineCheckService.onTaskChanged(new TaskChangedEvent(TaskChangeType.CREATED, completedId, null, active(passed)));
+        deadlineCheckService.onTaskChanged(TaskChangedEvent.toggled(completedId, active(passed), active(passed).toggled(OffsetDateTime.now())));
+        deadlineCheckService.onTaskChanged(new TaskChangedEvent(TaskChangeType.CREATED, deletedId, null, active(passed)));
+        deadlineCheckService.onTaskChanged(TaskChangedEvent.deleted(deletedId, active(passed)));
+
+        deadlineCheckService.flipDueTasks();
+
+        verify(taskRepository).markOverdue(eq(List.of(activeId)), any());
+        verify(taskRepository, times(1)).markOverdue(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Изменения задач, пришедшие пока перезагрузка индекса читала БД, не теряются")
+    void reloadIndex_TasksChangedDuringQuery_KeepEventState() {
+        OffsetDateTime now = OffsetDateTime.now();
+        UUID createdId = UUID.randomUUID();
+        UUID rescheduledId = UUID.randomUUID();
+        when(taskRepository.findActiveDeadlinesBefore(any())).thenAnswer(invocation -> {
+            // запрос уже прочитал старый дедлайн, а события пришли до замены индекса
+            deadlineCheckService.onTaskChanged(new TaskChangedEvent(
+                    TaskChangeType.CREATED, createdId, null, active(now.minusSeconds(1))));
+            deadlineCheckService.onTaskChanged(TaskChangedEvent.updated(
+                    rescheduledId, active(now.minusSeconds(1)), active(now.plusMinutes(30))));
+            return List.of(deadlineView(rescheduledId, now.minusSeconds(1)));
+        });
+
+        deadlineCheckService.reloadIndex(now);
+        deadlineCheckService.flipDueTasks();
+
+        verify(taskRepository).markOverdue(eq(List.of(createdId)), any());
+        verify(taskRepository, times(1)).markOverdue(anyCollection(), any());
+    }
+
+    @Test
+    @DisplayName("Дедлайн за горизонтом индекса не отслеживается до следующей сверки")
+    void onTaskChanged_DeadlineBeyondHorizon_NotIndexed() {
+        when(taskRepository.findActiveDeadlinesBefore(any())).thenReturn(List.of());
+        deadlineCheckService.reloadIndex(OffsetDateTime.now().minus(DeadlineCheckService.INDEX_HORIZON).minusMinutes(1));
+
+        deadlineCheckService.onTaskChanged(new TaskChangedEvent(
+                TaskChangeType.CREATED, UUID.randomUUID(), null, active(OffsetDateTime.now().minusSeconds(1))));
+        deadlineCheckService.flipDueTasks();
+
+        verify(taskRepository, never()).markOverdue(anyCollection(), any());
+    }
+
+    private static TaskState active(OffsetDateTime deadline) {
+        return new TaskState(Status.ACTIVE, Priority.MEDIUM, deadline);
+    }
+
+    private static TaskDeadlineView deadlineView(UUID id, OffsetDateTime deadline) {
+        return new TaskDeadlineView() {
+            @Override
+            public UUID getId() {
+                return id;
+            }
+
+            @Override
+            public OffsetDateTime getDeadline() {
+                return deadline;
+            }
+        };
+    }
+}
@@ -0,0 +1,183 @@
+package ru.hits.todobackend.servicesTests;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.hits.todobackend.TodobackendApplication;
+import ru.hits.todobackend.services.DeadlineCheckService;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Сверка просрочек на двух экземплярах приложения поверх одной БД: тестовый контекст —
+ * первый узел, второй поднимается рядом с теми же настройками.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class DeadlineSweepNodesTests {
+
+    private static ConfigurableApplicationContext secondNode;
+
+    @Autowired
+    private DeadlineCheckService firstNodeService;
+
+    @Autowired
+    private MeterRegistry firstNodeRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final String marker = "Сверка узлов " + UUID.randomUUID();
+    private final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS);
+
+    @BeforeEach
+    void startSecondNode() throws InterruptedException {
+        if (secondNode == null) {
+            secondNode = new SpringApplicationBuilder(TodobackendApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .profiles("test")
+                    .run("--spring.main.banner-mode=off");
+        }
+        // сверка при старте узла не должна разобрать задачи теста раньше него
+        awaitStartupSweep(firstNodeRegistry);
+        awaitStartupSweep(secondNode.getBean(MeterRegistry.class));
+    }
+
+    @AfterEach
+    void cleanup() {
+        jdbcTemplate.update("DELETE FROM tasks WHERE task_title = ?", marker);
+    }
+
+    @AfterAll
+    static void stopSecondNode() {
+        if (secondNode != null) {
+            secondNode.close();
+        }
+    }
+
+    private static void awaitStartupSweep(MeterRegistry registry) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (registry.get("todo.deadline.sweep").timer().count() == 0) {
+            assertTrue(System.nanoTime() < deadline, "startup sweep did not run");
+            Thread.sleep(50);
+        }
+    }
+
+    private List<UUID> seedOverdue(int count) {
+        List<UUID> ids = new ArrayList<>(count);
+        List<Object[]> rows = new ArrayList<>(count);
+        OffsetDateTime deadline = now.minusDays(1);
+        for (int i = 0; i < count; i++) {
+            UUID id = UUID.randomUUID();
+            ids.add(id);
+            rows.add(new Object[]{id, marker, "ACTIVE", "MEDIUM", deadline, deadline.minusDays(1), deadline.minusDays(1)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tasks (id, task_title, status, priority, deadline_date, "
+                + "creation_date, update_date, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)", rows);
+        return ids;
+    }
+
+    private int overdueBacklog() {
+        return jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tasks WHERE status = 'ACTIVE' AND deadline_date < ?", Integer.class, now);
+    }
+
+    @Test
+    @DisplayName("Два узла сверяют одновременно: каждая просроченная задача переводится ровно один раз")
+    void markOverdueTasks_TwoNodesConcurrently_ShareBacklogWithoutDuplicates() throws Exception {
+        seedOverdue(DeadlineCheckService.SWEEP_CHUNK_SIZE * 2 + 500);
+        int backlog = overdueBacklog();
+        DeadlineCheckService secondNodeService = secondNode.getBean(DeadlineCheckService.class);
+
+        CountDownLatch start = new CountDownLatch(1);
+        int first;
+        int second;
+        try (ExecutorService nodes = Executors.newFixedThreadPool(2)) {
+            Future<Integer> firstRun = nodes.submit(() -> {
+                start.await();
+                return firstNodeService.markOverdueTasks(now);
+            });
+            Future<Integer> secondRun = nodes.submit(() -> {
+                start.await();
+                return secondNodeService.markOverdueTasks(now);
+            });
+            start.countDown();
+            first = firstRun.get(60, TimeUnit.SECONDS);
+            second = secondRun.get(60, TimeUnit.SECONDS);
+        }
+
+        assertEquals(backlog, first + second);
+        assertEquals(0, overdueBacklog());
+        // version + 1 ровно один раз: ни одну строку не перевели дважды
+        assertEquals(0, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tasks WHERE task_title = ? AND (status <> 'OVERDUE' OR version <> 1)",
+                Integer.class, marker));
+    }
+
+    @Test
+    @DisplayName("Строки, заблокированные другим узлом, сверка пропускает, а не ждёт")
+    void markOverdueTasks_RowsLockedByAnotherNode_AreSkipped() throws Exception {
+        List<UUID> ids = seedOverdue(20);
+        List<UUID> lockedIds = ids.subList(0, 5);
+        int backlog = overdueBacklog();
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        try (ExecutorService otherNode = Executors.newSingleThreadExecutor()) {
+            Future<?> holder = otherNode.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(tx -> {
+                jdbcTemplate.queryForList("SELECT id FROM tasks WHERE id IN ("
+                        + String.join(", ", Collections.nCopies(lockedIds.size(), "?")) + ") FOR UPDATE",
+                        lockedIds.toArray());
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            try {
+                assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+                int swept = assertTimeoutPreemptively(Duration.ofSeconds(5),
+                        () -> secondNode.getBean(DeadlineCheckService.class).markOverdueTasks(now));
+                assertEquals(backlog - lockedIds.size(), swept);
+            } finally {
+                release.countDown();
+            }
+            holder.get(10, TimeUnit.SECONDS);
+        }
+
+        // следующая сверка добирает то, что было заблокировано
+        assertEquals(lockedIds.size(), firstNodeService.markOverdueTasks(now));
+        assertEquals(0, overdueBacklog());
+    }
+}
@@ -0,0 +1,154 @@
+package ru.hits.todobackend.servicesTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hits.todobackend.Specification.TaskSpecifications;
+import ru.hits.todobackend.dto.BulkResultDTO;
+import ru.hits.todobackend.dto.BulkUpdateTaskDTO;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.dto.TaskStatsDTO;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.exception.BadRequestException;
+import ru.hits.todobackend.repository.TaskDeletionRepository;
+import ru.hits.todobackend.repository.TaskRepository;
+import ru.hits.todobackend.services.TaskBulkService;
+import ru.hits.todobackend.services.TaskService;
+import ru.hits.todobackend.services.TaskStatsService;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskBulkServiceTests {
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskDeletionRepository taskDeletionRepository;
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    // своё окно дедлайнов на тест: фильтр не заденет задачи других тестов
+    private final OffsetDateTime windowStart = OffsetDateTime.of(2100, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC)
+            .plusDays(ThreadLocalRandom.current().nextInt(100_000));
+    private final OffsetDateTime windowEnd = windowStart.plusHours(12);
+
+    @AfterEach
+    void cleanup() {
+        created.stream().filter(taskRepository::existsById).forEach(taskService::deleteTask);
+    }
+
+    private TaskDTO createTask(Priority priority) {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Массовая задача");
+        dto.setPriority(priority);
+        dto.setDeadline(windowStart.plusHours(1));
+        TaskDTO task = taskService.createTask(dto);
+        created.add(task.getId());
+        return task;
+    }
+
+    @Test
+    @DisplayName("Массовое обновление меняет только задачи под фильтром и поднимает их версию")
+    void updateTasks_ChangesOnlyMatchingTasks() {
+        TaskDTO low1 = createTask(Priority.LOW);
+        TaskDTO low2 = createTask(Priority.LOW);
+        TaskDTO high = createTask(Priority.HIGH);
+        TaskStatsDTO before = taskStatsService.getStats();
+
+        BulkUpdateTaskDTO changes = new BulkUpdateTaskDTO();
+        changes.setPriority(Priority.CRITICAL);
+        BulkResultDTO result = taskBulkService.updateTasks(null, Priority.LOW, windowStart, windowEnd, changes);
+
+        assertEquals(2, result.getAffected());
+        assertEquals(1, result.getChunks());
+        for (TaskDTO task : List.of(low1, low2)) {
+            TaskDTO updated = taskService.getTaskById(task.getId());
+            assertEquals(Priority.CRITICAL, updated.getPriority());
+            assertEquals(task.getVersion() + 1, updated.getVersion());
+        }
+        assertEquals(Priority.HIGH, taskService.getTaskById(high.getId()).getPriority());
+
+        // счётчики узнали о массовом изменении из событий, без сверки
+        TaskStatsDTO after = taskStatsService.getStats();
+        assertEquals(before.getByStatusAndPriority().get(Status.ACTIVE).get(Priority.CRITICAL) + 2,
+                after.getByStatusAndPriority().get(Status.ACTIVE).get(Priority.CRITICAL));
+        assertEquals(before.getTotal(), after.getTotal());
+    }
+
+    @Test
+    @DisplayName("Массовое удаление оставляет tombstone'ы для синхронизации")
+    void deleteTasks_RemovesMatchingTasksAndRecordsDeletions() {
+        TaskDTO first = createTask(Priority.MEDIUM);
+        TaskDTO second = createTask(Priority.MEDIUM);
+        long tombstonesBefore = taskDeletionRepository.count();
+        long totalBefore = taskStatsService.getStats().getTotal();
+
+        BulkResultDTO result = taskBulkService.deleteTasks(Status.ACTIVE, null, windowStart, windowEnd);
+
+        assertEquals(2, result.getAffected());
+        assertFalse(taskRepository.existsById(first.getId()));
+        assertFalse(taskRepository.existsById(second.getId()));
+        assertEquals(tombstonesBefore + 2, taskDeletionRepository.count());
+        assertEquals(totalBefore - 2, taskStatsService.getStats().getTotal());
+    }
+
+    @Test
+    @DisplayName("Большой набор обрабатывается пачками, каждая в своей транзакции")
+    void deleteTasks_LargeSet_IsChunked() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i <= TaskBulkService.BULK_CHUNK_SIZE; i++) {
+            Task task = new Task();
+            task.setTitle("Пачка " + i);
+            task.setStatus(Status.ACTIVE);
+            task.setPriority(Priority.LOW);
+            task.setDeadline(windowStart.plusMinutes(i % 600));
+            tasks.add(task);
+        }
+        taskRepository.saveAll(tasks);
+        // строки записаны в обход событий — пусть счётчики их увидят до удаления
+        taskStatsService.reconcile();
+
+        BulkResultDTO result = taskBulkService.deleteTasks(null, null, windowStart, windowEnd);
+
+        assertEquals(TaskBulkService.BULK_CHUNK_SIZE + 1, result.getAffected());
+        assertEquals(2, result.getChunks());
+        assertEquals(0, taskRepository.count(TaskSpecifications.deadlineBetween(windowStart, windowEnd)));
+    }
+
+    @Test
+    @DisplayName("Без фильтра или без изменений массовая операция отклоняется")
+    void bulkOperations_WithoutFilterOrChanges_AreRejected() {
+        BulkUpdateTaskDTO changes = new BulkUpdateTaskDTO();
+        changes.setPriority(Priority.HIGH);
+
+        assertThrows(BadRequestException.class, () -> taskBulkService.deleteTasks(null, null, null, null));
+        assertThrows(BadRequestException.class, () -> taskBulkService.updateTasks(null, null, null, null, changes));
+        assertThrows(BadRequestException.class,
+                () -> taskBulkService.updateTasks(Status.ACTIVE, null, null, null, new BulkUpdateTaskDTO()));
+    }
+}
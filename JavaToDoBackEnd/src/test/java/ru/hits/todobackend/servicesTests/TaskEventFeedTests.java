@@ -0,0 +1,190 @@
+package ru.hits.todobackend.servicesTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TasksMarkedOverdueEvent;
+import ru.hits.todobackend.services.TaskEventFeed;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskEventFeedTests {
+
+    private static final int REPLAY_SIZE = 8;
+    private static final int MAX_LAG = 4;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    /**
+     * Эмиттер без HTTP: запоминает отправленные события в том виде, в каком они ушли бы в поток.
+     */
+    private static class RecordingEmitter extends SseEmitter {
+
+        final List<String> events = new ArrayList<>();
+        boolean completed;
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            StringBuilder event = new StringBuilder();
+            builder.build().forEach(part -> event.append(part.getData()));
+            // комментарии (приветствие, heartbeat) событиями не считаем
+            if (!event.toString().startsWith(":")) {
+                events.add(event.toString());
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+        }
+
+        String lastEventId() {
+            String last = events.get(events.size() - 1);
+            return last.lines().filter(line -> line.startsWith("id:")).findFirst().orElseThrow().substring(3);
+        }
+    }
+
+    private TaskEventFeed feed(Executor executor) {
+        return new TaskEventFeed(objectMapper, REPLAY_SIZE, MAX_LAG, 0L, executor);
+    }
+
+    private TaskChangedEvent updated(UUID id) {
+        return TaskChangedEvent.updated(null, task(id));
+    }
+
+    private static Task task(UUID id) {
+        Task task = new Task();
+        task.setId(id);
+        task.setStatus(Status.ACTIVE);
+        task.setPriority(Priority.MEDIUM);
+        task.setDeadline(OffsetDateTime.now().plusDays(1));
+        return task;
+    }
+
+    @Test
+    @DisplayName("Подписчик получает событие с id, типом и JSON-телом")
+    void publish_DeliversEventToSubscriber() {
+        TaskEventFeed feed = feed(Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(emitter, null);
+        UUID id = UUID.randomUUID();
+
+        feed.onTaskChanged(updated(id));
+
+        assertEquals(1, emitter.events.size());
+        String event = emitter.events.get(0);
+        assertTrue(event.contains("event:updated\n"));
+        assertTrue(event.contains("\"taskId\":\"" + id + "\""));
+        assertTrue(event.contains("\"status\":\"ACTIVE\""));
+        assertFalse(event.contains("taskIds"));
+    }
+
+    @Test
+    @DisplayName("Новый подписчик без Last-Event-ID не получает прошлых событий")
+    void subscribe_WithoutLastEventId_ReceivesOnlyNewEvents() {
+        TaskEventFeed feed = feed(Runnable::run);
+        feed.onTaskChanged(TaskChangedEvent.deleted(UUID.randomUUID(), null));
+
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(emitter, null);
+
+        assertTrue(emitter.events.isEmpty());
+    }
+
+    @Test
+    @DisplayName("С Last-Event-ID подписчик дочитывает пропущенные события из кольца")
+    void subscribe_WithLastEventId_ReplaysMissedEvents() {
+        TaskEventFeed feed = feed(Runnable::run);
+        RecordingEmitter first = new RecordingEmitter();
+        feed.subscribe(first, null);
+        feed.onTaskChanged(updated(UUID.randomUUID()));
+        String lastSeen = first.lastEventId();
+
+        UUID missed1 = UUID.randomUUID();
+        UUID missed2 = UUID.randomUUID();
+        feed.onTaskChanged(TaskChangedEvent.toggled(missed1, null, null));
+        feed.onTaskChanged(TaskChangedEvent.deleted(missed2, null));
+
+        RecordingEmitter resumed = new RecordingEmitter();
+        feed.subscribe(resumed, lastSeen);
+
+        assertEquals(2, resumed.events.size());
+        assertTrue(resumed.events.get(0).contains("event:toggled\n"));
+        assertTrue(resumed.events.get(0).contains(missed1.toString()));
+        assertTrue(resumed.events.get(1).contains("event:deleted\n"));
+        assertTrue(resumed.events.get(1).contains(missed2.toString()));
+    }
+
+    @Test
+    @DisplayName("Чужой или слишком старый Last-Event-ID даёт событие reset")
+    void subscribe_WithUnknownLastEventId_SendsReset() {
+        TaskEventFeed feed = feed(Runnable::run);
+        RecordingEmitter first = new RecordingEmitter();
+        feed.subscribe(first, null);
+        feed.onTaskChanged(updated(UUID.randomUUID()));
+        String tooOld = first.lastEventId();
+        for (int i = 0; i < MAX_LAG + 1; i++) {
+            feed.onTaskChanged(updated(UUID.randomUUID()));
+        }
+
+        RecordingEmitter stale = new RecordingEmitter();
+        feed.subscribe(stale, tooOld);
+        RecordingEmitter foreign = new RecordingEmitter();
+        feed.subscribe(foreign, "previous-run-42");
+
+        for (RecordingEmitter emitter : List.of(stale, foreign)) {
+            assertEquals(1, emitter.events.size());
+            assertTrue(emitter.events.get(0).contains("event:" + TaskEventFeed.RESET_EVENT + "\n"));
+        }
+        // reset несёт id текущей головы: переподключение после него продолжит с этого места
+        assertEquals(first.lastEventId(), stale.lastEventId());
+    }
+
+    @Test
+    @DisplayName("Подписчик, отставший больше чем на max-lag событий, отключается")
+    void publish_SlowSubscriber_IsEvicted() {
+        List<Runnable> neverRun = new ArrayList<>();
+        TaskEventFeed feed = feed(neverRun::add);
+        RecordingEmitter slow = new RecordingEmitter();
+        feed.subscribe(slow, null);
+
+        for (int i = 0; i < MAX_LAG; i++) {
+            feed.onTaskChanged(updated(UUID.randomUUID()));
+        }
+        assertEquals(1, feed.getSubscriberCount());
+        assertFalse(slow.completed);
+
+        feed.onTaskChanged(updated(UUID.randomUUID()));
+
+        assertTrue(slow.completed);
+        assertEquals(0, feed.getSubscriberCount());
+        assertEquals(1, feed.getEvictions());
+    }
+
+    @Test
+    @DisplayName("Сверка просрочек приходит одним событием overdue без списка id")
+    void onTasksMarkedOverdue_Sweep_PublishesOverdueEvent() {
+        TaskEventFeed feed = feed(Runnable::run);
+        RecordingEmitter emitter = new RecordingEmitter();
+        feed.subscribe(emitter, null);
+
+        feed.onTasksMarkedOverdue(TasksMarkedOverdueEvent.sweep(12, OffsetDateTime.now()));
+
+        assertEquals(1, emitter.events.size());
+        assertTrue(emitter.events.get(0).contains("event:overdue\n"));
+        assertTrue(emitter.events.get(0).contains("\"count\":12"));
+        assertFalse(emitter.events.get(0).contains("taskIds"));
+    }
+}
@@ -0,0 +1,201 @@
+package ru.hits.todobackend.servicesTests;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.hits.todobackend.dto.TaskCacheStatsDTO;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.events.TaskChangeType;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TasksMarkedOverdueEvent;
+import ru.hits.todobackend.exception.NotFoundException;
+import ru.hits.todobackend.services.TaskResponseCache;
+import ru.hits.todobackend.services.TaskService;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskResponseCacheTests {
+
+    private static final int BLOCK_SIZE = 64;
+
+    @Mock
+    private TaskService taskService;
+
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+    private TaskResponseCache cache(long capacityBytes) {
+        return new TaskResponseCache(taskService, objectMapper, capacityBytes, BLOCK_SIZE, 60_000);
+    }
+
+    private TaskDTO task(UUID id, String title) {
+        TaskDTO dto = new TaskDTO();
+        dto.setId(id);
+        dto.setTitle(title);
+        return dto;
+    }
+
+    @Test
+    @DisplayName("Повторное чтение отдаёт те же байты без обращения к сервису")
+    void getTaskJson_SecondCall_IsHit() throws Exception {
+        TaskResponseCache cache = cache(1 << 20);
+        UUID id = UUID.randomUUID();
+        // заголовок длиннее блока, чтобы запись заняла несколько блоков
+        TaskDTO dto = task(id, "Задача ".repeat(40));
+        dto.setVersion(7L);
+        when(taskService.getTaskById(id)).thenReturn(dto);
+
+        byte[] first = cache.getTaskJson(id).body();
+        byte[] second = cache.getTaskJson(id).body();
+
+        assertArrayEquals(objectMapper.writeValueAsBytes(dto), second);
+        assertArrayEquals(first, second);
+        assertEquals(7L, cache.getTaskJson(id).version());
+        verify(taskService, times(1)).getTaskById(id);
+
+        TaskCacheStatsDTO stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+        assertEquals(first.length, stats.getUsedBytes());
+    }
+
+    @Test
+    @DisplayName("Изменение задачи сбрасывает запись, создание — нет")
+    void onTaskChanged_InvalidatesEntry() {
+        TaskResponseCache cache = cache(1 << 20);
+        UUID id = UUID.randomUUID();
+        when(taskService.getTaskById(id)).thenReturn(task(id, "Старый заголовок"), task(id, "Новый заголовок"));
+
+        cache.getTaskJson(id);
+        cache.onTaskChanged(new TaskChangedEvent(TaskChangeType.CREATED, id, null, null));
+        cache.getTaskJson(id);
+        verify(taskService, times(1)).getTaskById(id);
+
+        cache.onTaskChanged(TaskChangedEvent.deleted(id, null));
+        assertTrue(new String(cache.getTaskJson(id).body()).contains("Новый заголовок"));
+        assertEquals(1, cache.getStats().getInvalidations());
+    }
+
+    @Test
+    @DisplayName("Перевод в OVERDUE сбрасывает перечисленные задачи, а сверка — весь кэш")
+    void onTasksMarkedOverdue_InvalidatesEntries() {
+        TaskResponseCache cache = cache(1 << 20);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(taskService.getTaskById(first)).thenReturn(task(first, "Первая задача"));
+        when(taskService.getTaskById(second)).thenReturn(task(second, "Вторая задача"));
+        cache.getTaskJson(first);
+        cache.getTaskJson(second);
+
+        cache.onTasksMarkedOverdue(TasksMarkedOverdueEvent.of(List.of(first), 1, OffsetDateTime.now()));
+        assertEquals(1, cache.getStats().getEntries());
+
+        cache.onTasksMarkedOverdue(TasksMarkedOverdueEvent.sweep(5, OffsetDateTime.now()));
+        assertEquals(0, cache.getStats().getEntries());
+        assertEquals(0, cache.getStats().getUsedBytes());
+    }
+
+    @Test
+    @DisplayName("При нехватке места вытесняется самая давно читанная запись")
+    void getTaskJson_CapacityExceeded_EvictsLeastRecentlyUsed() {
+        // по четыре блока на сегмент: JSON задачи занимает три, так что помещается только одна
+        TaskResponseCache cache = cache(16L * 4 * BLOCK_SIZE);
+        UUID[] ids = sameSegmentIds(2);
+        for (UUID id : ids) {
+            when(taskService.getTaskById(id)).thenReturn(task(id, "Заг"));
+        }
+
+        cache.getTaskJson(ids[0]);
+        cache.getTaskJson(ids[1]);
+        cache.getTaskJson(ids[0]);
+
+        verify(taskService, times(2)).getTaskById(ids[0]);
+        TaskCacheStatsDTO stats = cache.getStats();
+        assertEquals(2, stats.getEvictions());
+        assertEquals(1, stats.getEntries());
+    }
+
+    @Test
+    @DisplayName("Запись больше сегмента не кэшируется, но ответ отдаётся")
+    void getTaskJson_TooLarge_NotCached() {
+        TaskResponseCache cache = cache(16L * BLOCK_SIZE);
+        UUID id = UUID.randomUUID();
+        when(taskService.getTaskById(id)).thenReturn(task(id, "Очень длинный заголовок задачи"));
+
+        assertTrue(cache.getTaskJson(id).body().length > BLOCK_SIZE);
+        assertEquals(1, cache.getStats().getRejections());
+        assertEquals(0, cache.getStats().getEntries());
+    }
+
+    @Test
+    @DisplayName("Промах, прочитавший задачу до инвалидации, не кладёт устаревшие байты в кэш")
+    void getTaskJson_InvalidatedWhileLoading_NotCached() {
+        TaskResponseCache cache = cache(1 << 20);
+        UUID id = UUID.randomUUID();
+        when(taskService.getTaskById(id)).thenAnswer(invocation -> {
+            TaskDTO stale = task(id, "Старый заголовок");
+            cache.invalidate(id);
+            return stale;
+        });
+
+        cache.getTaskJson(id);
+
+        assertEquals(0, cache.getStats().getEntries());
+    }
+
+    @Test
+    @DisplayName("Запись старше TTL перечитывается: изменение на другом узле событием сюда не придёт")
+    void getTaskJson_Expired_Reloads() throws Exception {
+        TaskResponseCache cache = new TaskResponseCache(taskService, objectMapper, 1 << 20, BLOCK_SIZE, 1);
+        UUID id = UUID.randomUUID();
+        TaskDTO changed = task(id, "Новый заголовок");
+        changed.setVersion(1L);
+        when(taskService.getTaskById(id)).thenReturn(task(id, "Старый заголовок"), changed);
+
+        cache.getTaskJson(id);
+        Thread.sleep(5);
+        TaskResponseCache.TaskJson json = cache.getTaskJson(id);
+
+        assertTrue(new String(json.body()).contains("Новый заголовок"));
+        assertEquals(1L, json.version());
+        verify(taskService, times(2)).getTaskById(id);
+        TaskCacheStatsDTO stats = cache.getStats();
+        assertEquals(1, stats.getExpirations());
+        assertEquals(2, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+    }
+
+    @Test
+    @DisplayName("Несуществующая задача не кэшируется")
+    void getTaskJson_NotFound_Propagates() {
+        TaskResponseCache cache = cache(1 << 20);
+        UUID id = UUID.randomUUID();
+        when(taskService.getTaskById(id)).thenThrow(new NotFoundException("Task not found"));
+
+        assertThrows(NotFoundException.class, () -> cache.getTaskJson(id));
+        assertEquals(0, cache.getStats().getEntries());
+    }
+
+    private static UUID[] sameSegmentIds(int count) {
+        UUID[] ids = new UUID[count];
+        ids[0] = UUID.randomUUID();
+        int segment = Math.floorMod(ids[0].hashCode(), 16);
+        for (int i = 1; i < count; ) {
+            UUID candidate = UUID.randomUUID();
+            if (Math.floorMod(candidate.hashCode(), 16) == segment) {
+                ids[i++] = candidate;
+            }
+        }
+        return ids;
+    }
+}
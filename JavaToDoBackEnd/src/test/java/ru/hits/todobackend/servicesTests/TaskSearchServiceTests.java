@@ -0,0 +1,149 @@
+package ru.hits.todobackend.servicesTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.dto.TaskPageDTO;
+import ru.hits.todobackend.dto.UpdateTaskDTO;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.SortDirection;
+import ru.hits.todobackend.entities.enum_entities.SortField;
+import ru.hits.todobackend.exception.BadRequestException;
+import ru.hits.todobackend.services.TaskService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskSearchServiceTests {
+
+    @Autowired
+    private TaskService taskService;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        for (UUID id : created) {
+            try {
+                taskService.deleteTask(id);
+            } catch (RuntimeException ignored) {
+                // задачу уже удалил сам тест
+            }
+        }
+    }
+
+    private TaskDTO createTask(String title, String description, Priority priority) {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle(title);
+        dto.setDescription(description);
+        dto.setPriority(priority);
+        TaskDTO task = taskService.createTask(dto);
+        created.add(task.getId());
+        return task;
+    }
+
+    private List<UUID> search(String q, Priority priority) {
+        return taskService.searchTasks(q, null, priority, null, null, null, null)
+                .getItems().stream().map(TaskDTO::getId).toList();
+    }
+
+    @Test
+    @DisplayName("Поиск находит задачи по заголовку и описанию, совпадение в заголовке выше")
+    void searchTasks_RanksTitleMatchesFirst() {
+        TaskDTO inDescription = createTask("Купить продукты", "не забыть фламинго", Priority.MEDIUM);
+        TaskDTO inTitle = createTask("Покормить фламинго", "утром", Priority.MEDIUM);
+        createTask("Посторонняя задача", "без нужного слова", Priority.MEDIUM);
+
+        assertEquals(List.of(inTitle.getId(), inDescription.getId()), search("фламинго", null));
+    }
+
+    @Test
+    @DisplayName("Все слова запроса должны встретиться в задаче")
+    void searchTasks_RequiresAllTerms() {
+        TaskDTO both = createTask("Полить кактус", "и позвонить астроному", Priority.LOW);
+        createTask("Полить кактус", "сегодня", Priority.LOW);
+
+        assertEquals(List.of(both.getId()), search("кактус астроному", null));
+        assertTrue(search("кактус несуществующееслово", null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Поиск сочетается с фильтрами списка")
+    void searchTasks_CombinesWithFilters() {
+        TaskDTO high = createTask("Починить велосипед", null, Priority.HIGH);
+        createTask("Продать велосипед", null, Priority.LOW);
+
+        assertEquals(List.of(high.getId()), search("велосипед", Priority.HIGH));
+    }
+
+    @Test
+    @DisplayName("Выдача по релевантности листается курсором без повторов и пропусков")
+    void searchTasks_PagesThroughAllMatches() {
+        List<UUID> expected = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            expected.add(createTask("Рецепт глинтвейна " + i, null, Priority.MEDIUM).getId());
+        }
+
+        List<UUID> seen = new ArrayList<>();
+        String after = null;
+        do {
+            TaskPageDTO page = taskService.searchTasks("глинтвейна", null, null, null, null, 2, after);
+            assertTrue(page.getItems().size() <= 2);
+            page.getItems().forEach(task -> seen.add(task.getId()));
+            after = page.getNextCursor();
+        } while (after != null);
+
+        assertEquals(expected.size(), seen.size());
+        assertTrue(seen.containsAll(expected));
+
+        String cursor = taskService.searchTasks("глинтвейна", null, null, null, null, 2, null).getNextCursor();
+        assertThrows(BadRequestException.class,
+                () -> taskService.searchTasks("фламинго", null, null, null, null, 2, cursor));
+    }
+
+    @Test
+    @DisplayName("Изменённый заголовок и удалённая задача сразу видны в поиске")
+    void searchTasks_FollowsUpdatesAndDeletes() {
+        TaskDTO task = createTask("Записаться к окулисту", null, Priority.MEDIUM);
+        assertEquals(List.of(task.getId()), search("окулисту", null));
+
+        UpdateTaskDTO update = new UpdateTaskDTO();
+        update.setTitle("Записаться к стоматологу");
+        update.setPriority(Priority.MEDIUM);
+        taskService.updateTask(task.getId(), update);
+        assertTrue(search("окулисту", null).isEmpty());
+        assertEquals(List.of(task.getId()), search("стоматологу", null));
+
+        taskService.deleteTask(task.getId());
+        assertTrue(search("стоматологу", null).isEmpty());
+    }
+
+    @Test
+    @DisplayName("С явной сортировкой q только фильтрует, порядок — по полю сортировки")
+    void getTasksPage_WithQuery_FiltersAndKeepsSortOrder() {
+        TaskDTO b = createTask("Бегония на окне", null, Priority.MEDIUM);
+        TaskDTO a = createTask("Агава и бегония", null, Priority.MEDIUM);
+        createTask("Азалия на окне", null, Priority.MEDIUM);
+
+        TaskPageDTO page = taskService.getTasksPage(null, null, null, null,
+                SortField.TITLE, SortDirection.ASC, 10, null, "бегония");
+
+        assertEquals(List.of(a.getId(), b.getId()), page.getItems().stream().map(TaskDTO::getId).toList());
+    }
+
+    @Test
+    @DisplayName("Пустой запрос отклоняется")
+    void searchTasks_BlankQuery_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> taskService.searchTasks(" ", null, null, null, null, null, null));
+    }
+}
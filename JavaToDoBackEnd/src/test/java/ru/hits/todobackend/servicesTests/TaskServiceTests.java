@@ -9,6 +9,7 @@ import org.junit.jupiter.params.provider.CsvSource;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import ru.hits.todobackend.dto.CreateTaskDTO;
 import ru.hits.todobackend.dto.TaskDTO;
 import ru.hits.todobackend.dto.UpdateTaskDTO;
@@ -16,9 +17,14 @@ import ru.hits.todobackend.entities.Task;
 import ru.hits.todobackend.entities.enum_entities.Priority;
 
 import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.events.TaskChangedEvent;
+import ru.hits.todobackend.events.TaskState;
 import ru.hits.todobackend.exception.BadRequestException;
 import ru.hits.todobackend.exception.NotFoundException;
+import ru.hits.todobackend.exception.PreconditionFailedException;
+import ru.hits.todobackend.repository.TaskDeletionRepository;
 import ru.hits.todobackend.repository.TaskRepository;
+import ru.hits.todobackend.repository.TaskStateView;
 import ru.hits.todobackend.services.TaskService;
 
 import java.time.OffsetDateTime;
@@ -29,6 +35,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -37,6 +45,12 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskDeletionRepository taskDeletionRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private TaskService taskService;
 
@@ -335,100 +349,116 @@ class TaskServiceTest {
 
 
     //func toggleTask Tests
+    private static TaskStateView state(Status status, long version) {
+        return new TaskStateView() {
+            @Override
+            public Status getStatus() {
+                return status;
+            }
+
+            @Override
+            public Priority getPriority() {
+                return Priority.HIGH;
+            }
+
+            @Override
+            public OffsetDateTime getDeadline() {
+                return null;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+
+    private static Optional<TaskState> previous(Status status) {
+        return Optional.of(new TaskState(status, Priority.HIGH, null));
+    }
+
     @Test
-    @DisplayName("   ACTIVE  COMPLETED")
-    void toggleTask_ActiveToCompleted() {
+    @DisplayName("     UPDATE      ")
+    void toggleTask_SingleStatement() {
         UUID taskId = UUID.randomUUID();
-        Task task = new Task();
-        task.setId(taskId);
-        task.setStatus(Status.ACTIVE);
-        task.setUpdatedAt(OffsetDateTime.now().minusDays(1));
-
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
-        when(taskRepository.save(any(Task.class))).thenReturn(task);
+        when(taskRepository.toggleStatus(eq(taskId), any(OffsetDateTime.class), isNull())).thenReturn(previous(Status.ACTIVE));
 
         taskService.toggleTask(taskId);
 
-        assertEquals(Status.COMPLETED, task.getStatus());
-        assertTrue(task.getUpdatedAt().isAfter(OffsetDateTime.now().minusSeconds(1)));
-        verify(taskRepository).save(task);
+        verify(taskRepository).toggleStatus(eq(taskId), any(OffsetDateTime.class), isNull());
+        verifyNoMoreInteractions(taskRepository);
+        verify(eventPublisher).publishEvent(any(TaskChangedEvent.class));
     }
 
     @Test
-    @DisplayName("   COMPLETED  ACTIVE")
-    void toggleTask_CompletedToActive() {
+    @DisplayName("      ")
+    void toggleTask_PublishesPreviousAndCurrentState() {
         UUID taskId = UUID.randomUUID();
-        Task task = new Task();
-        task.setId(taskId);
-        task.setStatus(Status.COMPLETED);
-
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        when(taskRepository.toggleStatus(eq(taskId), any(OffsetDateTime.class), isNull())).thenReturn(previous(Status.ACTIVE));
 
         taskService.toggleTask(taskId);
 
-        assertEquals(Status.ACTIVE, task.getStatus());
-        verify(taskRepository).save(task);
+        ArgumentCaptor<TaskChangedEvent> event = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Status.ACTIVE, event.getValue().getPrevious().status());
+        assertEquals(Status.COMPLETED, event.getValue().getCurrent().status());
+        assertEquals(Priority.HIGH, event.getValue().getCurrent().priority());
     }
 
     @Test
-    @DisplayName("   OVERDUE  LATE")
-    void toggleTask_OverdueToLate() {
+    @DisplayName("     NotFoundException   ")
+    void toggleTask_NonExistentTask_ThrowsNotFoundException() {
         UUID taskId = UUID.randomUUID();
-        Task task = new Task();
-        task.setId(taskId);
-        task.setStatus(Status.OVERDUE);
-
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
-
-        taskService.toggleTask(taskId);
+        when(taskRepository.toggleStatus(eq(taskId), any(OffsetDateTime.class), isNull())).thenReturn(Optional.empty());
 
-        assertEquals(Status.LATE, task.getStatus());
-        verify(taskRepository).save(task);
+        assertThrows(NotFoundException.class, () -> taskService.toggleTask(taskId));
+        verify(taskRepository, never()).findStateById(any());
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    @DisplayName("   LATE  OVERDUE")
-    void toggleTask_LateToOverdue() {
+    @DisplayName("  updatedAt   ")
+    void toggleTask_UpdatesUpdatedAt() {
         UUID taskId = UUID.randomUUID();
-        Task task = new Task();
-        task.setId(taskId);
-        task.setStatus(Status.LATE);
-
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        OffsetDateTime before = OffsetDateTime.now().minusSeconds(1);
+        ArgumentCaptor<OffsetDateTime> now = ArgumentCaptor.forClass(OffsetDateTime.class);
+        when(taskRepository.toggleStatus(eq(taskId), now.capture(), isNull())).thenReturn(previous(Status.ACTIVE));
 
         taskService.toggleTask(taskId);
 
-        assertEquals(Status.OVERDUE, task.getStatus());
-        verify(taskRepository).save(task);
+        assertTrue(now.getValue().isAfter(before));
     }
 
     @Test
-    @DisplayName("     NotFoundException")
-    void toggleTask_NonExistentTask_ThrowsNotFoundException() {
+    @DisplayName("     If-Match  PreconditionFailedException")
+    void toggleTask_VersionMismatch_ThrowsPreconditionFailed() {
         UUID taskId = UUID.randomUUID();
-        when(taskRepository.findById(taskId)).thenReturn(Optional.empty());
+        when(taskRepository.toggleStatus(eq(taskId), any(OffsetDateTime.class), eq(3L))).thenReturn(Optional.empty());
+        when(taskRepository.findStateById(taskId)).thenReturn(Optional.of(state(Status.ACTIVE, 4L)));
 
-        assertThrows(NotFoundException.class, () -> taskService.toggleTask(taskId));
-        verify(taskRepository, never()).save(any());
+        assertThrows(PreconditionFailedException.class, () -> taskService.toggleTask(taskId, 3L));
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
     @Test
-    @DisplayName("  updatedAt   ")
-    void toggleTask_UpdatesUpdatedAt() {
+    @DisplayName("    If-Match  NotFoundException,   412")
+    void toggleTask_VersionGivenButTaskMissing_ThrowsNotFoundException() {
         UUID taskId = UUID.randomUUID();
-        Task task = new Task();
-        task.setId(taskId);
-        task.setStatus(Status.ACTIVE);
-        OffsetDateTime initialUpdatedAt = OffsetDateTime.now().minusDays(1);
-        task.setUpdatedAt(initialUpdatedAt);
+        when(taskRepository.toggleStatus(eq(taskId), any(OffsetDateTime.class), eq(3L))).thenReturn(Optional.empty());
+        when(taskRepository.findStateById(taskId)).thenReturn(Optional.empty());
 
-        when(taskRepository.findById(taskId)).thenReturn(Optional.of(task));
+        assertThrows(NotFoundException.class, () -> taskService.toggleTask(taskId, 3L));
+    }
 
-        taskService.toggleTask(taskId);
+    @Test
+    @DisplayName("     If-Match  PreconditionFailedException")
+    void updateTask_VersionMismatch_ThrowsPreconditionFailed() {
+        existingTask.setVersion(5L);
+        when(taskRepository.findById(taskId)).thenReturn(Optional.of(existingTask));
+        updateTaskDTO.setTitle("New valid title");
 
-        assertNotEquals(initialUpdatedAt, task.getUpdatedAt());
-        assertTrue(task.getUpdatedAt().isAfter(initialUpdatedAt));
-        verify(taskRepository).save(task);
+        assertThrows(PreconditionFailedException.class, () -> taskService.updateTask(taskId, updateTaskDTO, 4L));
+        verify(taskRepository, never()).save(any());
     }
 
     //func updateTask Tests
@@ -926,15 +956,32 @@ class TaskServiceTest {
     @DisplayName("  ")
     void testDeleteTask_ExistingTask() {
         UUID taskId = UUID.randomUUID();
-        Task existingTask = new Task();
-        existingTask.setId(taskId);
+        when(taskRepository.deleteTaskById(taskId, 7L)).thenReturn(previous(Status.LATE));
 
-        when(taskRepository.existsById(taskId)).thenReturn(true);
-        doNothing().when(taskRepository).deleteById(taskId);
+        taskService.deleteTask(taskId, 7L);
+
+        verify(taskRepository).deleteTaskById(taskId, 7L);
+        verify(taskRepository, never()).findById(any());
+        verify(taskRepository, never()).findStateById(any());
+        verify(taskRepository, never()).deleteById(any());
+        ArgumentCaptor<TaskChangedEvent> event = ArgumentCaptor.forClass(TaskChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals(Status.LATE, event.getValue().getPrevious().status());
+        assertNull(event.getValue().getCurrent());
+    }
+
+    @Test
+    @DisplayName("  tombstone  -,   ")
+    void testDeleteTask_RecordsTombstoneOnlyWhenDeleted() {
+        UUID missingId = UUID.randomUUID();
+        when(taskRepository.deleteTaskById(taskId, null)).thenReturn(previous(Status.ACTIVE));
+        when(taskRepository.deleteTaskById(missingId, null)).thenReturn(Optional.empty());
 
         taskService.deleteTask(taskId);
+        assertThrows(NotFoundException.class, () -> taskService.deleteTask(missingId));
 
-        verify(taskRepository).deleteById(taskId);
+        verify(taskDeletionRepository).record(eq(taskId), any(OffsetDateTime.class));
+        verify(taskDeletionRepository, never()).record(eq(missingId), any());
     }
 
     @Test
@@ -942,13 +989,22 @@ class TaskServiceTest {
     void testDeleteTask_NonExistentTask_ThrowsNotFoundException() {
         UUID taskId = UUID.randomUUID();
 
-        when(taskRepository.existsById(taskId)).thenReturn(false);
+        when(taskRepository.deleteTaskById(taskId, null)).thenReturn(Optional.empty());
 
         assertThrows(NotFoundException.class, () -> taskService.deleteTask(taskId));
-        verify(taskRepository, never()).deleteById(taskId);
+        verify(eventPublisher, never()).publishEvent(any());
     }
 
+    @Test
+    @DisplayName("     If-Match  PreconditionFailedException")
+    void testDeleteTask_VersionMismatch_ThrowsPreconditionFailed() {
+        UUID taskId = UUID.randomUUID();
+        when(taskRepository.deleteTaskById(taskId, 3L)).thenReturn(Optional.empty());
+        when(taskRepository.findStateById(taskId)).thenReturn(Optional.of(state(Status.ACTIVE, 4L)));
 
+        assertThrows(PreconditionFailedException.class, () -> taskService.deleteTask(taskId, 3L));
+        verify(taskDeletionRepository, never()).record(any(), any());
+    }
 
 }
 
@@ -0,0 +1,185 @@
+package ru.hits.todobackend.servicesTests;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.dto.TaskStatsDTO;
+import ru.hits.todobackend.dto.UpdateTaskDTO;
+import ru.hits.todobackend.entities.Task;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.entities.enum_entities.Status;
+import ru.hits.todobackend.repository.TaskCountView;
+import ru.hits.todobackend.repository.TaskRepository;
+import ru.hits.todobackend.services.DeadlineCheckService;
+import ru.hits.todobackend.services.TaskService;
+import ru.hits.todobackend.services.TaskStatsService;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class TaskStatsServiceTests {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskStatsService taskStatsService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private DeadlineCheckService deadlineCheckService;
+
+    private final List<UUID> created = new ArrayList<>();
+
+    @AfterEach
+    void cleanup() {
+        created.stream().filter(taskRepository::existsById).forEach(taskService::deleteTask);
+    }
+
+    private TaskDTO createTask(Priority priority, OffsetDateTime deadline) {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle("Задача статистики");
+        dto.setPriority(priority);
+        dto.setDeadline(deadline);
+        TaskDTO task = taskService.createTask(dto);
+        created.add(task.getId());
+        return task;
+    }
+
+    private static long count(TaskStatsDTO stats, Status status, Priority priority) {
+        return stats.getByStatusAndPriority().get(status).get(priority);
+    }
+
+    private void assertMatchesDatabase() {
+        TaskStatsDTO stats = taskStatsService.getStats();
+        long total = 0;
+        for (TaskCountView row : taskRepository.countByStatusAndPriority()) {
+            assertEquals(row.getCount(), count(stats, row.getStatus(), row.getPriority()),
+                    row.getStatus() + "/" + row.getPriority());
+            total += row.getCount();
+        }
+        assertEquals(total, stats.getTotal());
+    }
+
+    @Test
+    @DisplayName("Создание, переключение и удаление сразу меняют счётчики без сверки")
+    void mutations_UpdateCountersAfterCommit() {
+        OffsetDateTime endOfToday = LocalDate.now(ZoneOffset.UTC).atTime(23, 59).atOffset(ZoneOffset.UTC);
+        assumeTrue(endOfToday.isAfter(OffsetDateTime.now().plusMinutes(1)), "сутки вот-вот сменятся");
+        TaskStatsDTO before = taskStatsService.getStats();
+
+        TaskDTO task = createTask(Priority.CRITICAL, endOfToday);
+        TaskStatsDTO afterCreate = taskStatsService.getStats();
+        assertEquals(count(before, Status.ACTIVE, Priority.CRITICAL) + 1, count(afterCreate, Status.ACTIVE, Priority.CRITICAL));
+        assertEquals(before.getTotal() + 1, afterCreate.getTotal());
+        assertEquals(before.getDueToday() + 1, afterCreate.getDueToday());
+
+        taskService.toggleTask(task.getId());
+        TaskStatsDTO afterToggle = taskStatsService.getStats();
+        assertEquals(count(before, Status.ACTIVE, Priority.CRITICAL), count(afterToggle, Status.ACTIVE, Priority.CRITICAL));
+        assertEquals(count(before, Status.COMPLETED, Priority.CRITICAL) + 1, count(afterToggle, Status.COMPLETED, Priority.CRITICAL));
+        // выполненная задача в «на сегодня» не считается
+        assertEquals(before.getDueToday(), afterToggle.getDueToday());
+
+        taskService.deleteTask(task.getId());
+        TaskStatsDTO afterDelete = taskStatsService.getStats();
+        assertEquals(before.getByStatusAndPriority(), afterDelete.getByStatusAndPriority());
+        assertEquals(before.getTotal(), afterDelete.getTotal());
+        assertMatchesDatabase();
+    }
+
+    @Test
+    @DisplayName("Смена приоритета при обновлении переносит задачу между счётчиками")
+    void updateTask_MovesTaskBetweenPriorities() {
+        TaskDTO task = createTask(Priority.LOW, null);
+        TaskStatsDTO before = taskStatsService.getStats();
+
+        UpdateTaskDTO update = new UpdateTaskDTO();
+        update.setTitle("Задача статистики");
+        update.setPriority(Priority.HIGH);
+        taskService.updateTask(task.getId(), update);
+
+        TaskStatsDTO after = taskStatsService.getStats();
+        assertEquals(count(before, Status.ACTIVE, Priority.LOW) - 1, count(after, Status.ACTIVE, Priority.LOW));
+        assertEquals(count(before, Status.ACTIVE, Priority.HIGH) + 1, count(after, Status.ACTIVE, Priority.HIGH));
+        assertEquals(before.getTotal(), after.getTotal());
+    }
+
+    @Test
+    @DisplayName("PATCH приоритета переносит задачу между счётчиками, PATCH текста их не трогает")
+    void patchTask_MovesTaskBetweenPrioritiesOnlyWhenStateChanges() {
+        TaskDTO task = createTask(Priority.LOW, null);
+        TaskStatsDTO before = taskStatsService.getStats();
+
+        UpdateTaskDTO text = new UpdateTaskDTO();
+        text.setDescription("Только описание");
+        taskService.patchTask(task.getId(), text, null);
+        assertEquals(before.getByStatusAndPriority(), taskStatsService.getStats().getByStatusAndPriority());
+
+        UpdateTaskDTO priority = new UpdateTaskDTO();
+        priority.setPriority(Priority.HIGH);
+        taskService.patchTask(task.getId(), priority, null);
+
+        TaskStatsDTO after = taskStatsService.getStats();
+        assertEquals(count(before, Status.ACTIVE, Priority.LOW) - 1, count(after, Status.ACTIVE, Priority.LOW));
+        assertEquals(count(before, Status.ACTIVE, Priority.HIGH) + 1, count(after, Status.ACTIVE, Priority.HIGH));
+        assertMatchesDatabase();
+    }
+
+    @Test
+    @DisplayName("Сверка с GROUP BY подхватывает строки, записанные в обход TaskService")
+    void reconcile_FixesDrift() {
+        Task task = new Task();
+        task.setTitle("Мимо событий");
+        task.setStatus(Status.LATE);
+        task.setPriority(Priority.LOW);
+        created.add(taskRepository.save(task).getId());
+        TaskStatsDTO stale = taskStatsService.getStats();
+
+        assertTrue(taskStatsService.reconcile() > 0);
+
+        assertEquals(count(stale, Status.LATE, Priority.LOW) + 1,
+                count(taskStatsService.getStats(), Status.LATE, Priority.LOW));
+        assertMatchesDatabase();
+        assertEquals(0, taskStatsService.reconcile());
+    }
+
+    @Test
+    @DisplayName("Перевод просроченных задач в OVERDUE переносит их из ACTIVE по приоритетам")
+    void markOverdueTasks_MovesActiveToOverdue() {
+        Task task = new Task();
+        task.setTitle("Уже просрочена");
+        task.setStatus(Status.ACTIVE);
+        task.setPriority(Priority.CRITICAL);
+        task.setDeadline(OffsetDateTime.now().minusHours(1));
+        created.add(taskRepository.save(task).getId());
+        taskStatsService.reconcile();
+        TaskStatsDTO before = taskStatsService.getStats();
+
+        int marked = deadlineCheckService.markOverdueTasks(
+                OffsetDateTime.now().withOffsetSameInstant(ZoneOffset.UTC).truncatedTo(ChronoUnit.MICROS));
+
+        TaskStatsDTO after = taskStatsService.getStats();
+        assertTrue(marked >= 1);
+        assertEquals(count(before, Status.OVERDUE, Priority.CRITICAL) + 1, count(after, Status.OVERDUE, Priority.CRITICAL));
+        assertEquals(before.getTotal(), after.getTotal());
+        assertMatchesDatabase();
+    }
+}
@@ -0,0 +1,121 @@
+package ru.hits.todobackend.servicesTests;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.hits.todobackend.Specification.SyncToken;
+import ru.hits.todobackend.dto.CreateTaskDTO;
+import ru.hits.todobackend.dto.TaskChangesDTO;
+import ru.hits.todobackend.dto.TaskDTO;
+import ru.hits.todobackend.exception.BadRequestException;
+import ru.hits.todobackend.exception.GoneException;
+import ru.hits.todobackend.services.TaskService;
+import ru.hits.todobackend.services.TaskSyncService;
+
+import java.time.OffsetDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// без запаса на незакоммиченные транзакции ответы не перекрываются, и дельту можно проверять точно
+@SpringBootTest(properties = "todo.sync.grace-period=0")
+@ActiveProfiles("test")
+class TaskSyncServiceTests {
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private TaskSyncService taskSyncService;
+
+    private TaskDTO createTask(String title) {
+        CreateTaskDTO dto = new CreateTaskDTO();
+        dto.setTitle(title);
+        return taskService.createTask(dto);
+    }
+
+    /**
+     * Полный сеанс: запросы с nextToken, пока hasMore. Возвращает id всех пришедших задач
+     * и удалений, а последний токен кладёт в {@code token[0]}.
+     */
+    private Set<UUID> syncSession(String since, int limit, Set<UUID> deleted, String[] token) {
+        Set<UUID> items = new HashSet<>();
+        TaskChangesDTO page;
+        String next = since;
+        do {
+            page = taskSyncService.getChanges(next, limit);
+            for (TaskDTO task : page.getItems()) {
+                assertTrue(items.add(task.getId()), "задача пришла дважды за сеанс: " + task.getId());
+            }
+            deleted.addAll(page.getDeletedIds());
+            next = page.getNextToken();
+        } while (page.isHasMore());
+        token[0] = next;
+        return items;
+    }
+
+    @Test
+    @DisplayName("Первая синхронизация постранично отдаёт все задачи без повторов")
+    void getChanges_WithoutToken_ReturnsAllTasksPageByPage() {
+        TaskDTO first = createTask("Синхронизация 1");
+        TaskDTO second = createTask("Синхронизация 2");
+        TaskDTO third = createTask("Синхронизация 3");
+
+        TaskChangesDTO page = taskSyncService.getChanges(null, 2);
+        assertEquals(2, page.getItems().size());
+        assertTrue(page.isHasMore());
+
+        Set<UUID> items = syncSession(null, 2, new HashSet<>(), new String[1]);
+        assertTrue(items.containsAll(List.of(first.getId(), second.getId(), third.getId())));
+    }
+
+    @Test
+    @DisplayName("Повторная синхронизация отдаёт только изменённые задачи и tombstone'ы удалённых")
+    void getChanges_WithToken_ReturnsOnlyDelta() {
+        TaskDTO untouched = createTask("Без изменений");
+        TaskDTO toggled = createTask("Будет переключена");
+        TaskDTO removed = createTask("Будет удалена");
+        String[] token = new String[1];
+        syncSession(null, 100, new HashSet<>(), token);
+
+        taskService.toggleTask(toggled.getId());
+        taskService.deleteTask(removed.getId());
+        TaskDTO created = createTask("Создана после синхронизации");
+
+        Set<UUID> deleted = new HashSet<>();
+        Set<UUID> items = syncSession(token[0], 1, deleted, token);
+
+        assertTrue(items.containsAll(List.of(toggled.getId(), created.getId())));
+        assertFalse(items.contains(untouched.getId()));
+        assertFalse(items.contains(removed.getId()));
+        assertTrue(deleted.contains(removed.getId()));
+
+        Set<UUID> deletedAgain = new HashSet<>();
+        Set<UUID> again = syncSession(token[0], 100, deletedAgain, token);
+        assertFalse(again.contains(toggled.getId()));
+        assertFalse(deletedAgain.contains(removed.getId()));
+    }
+
+    @Test
+    @DisplayName("Токен старше срока хранения tombstone'ов отклоняется с 410")
+    void getChanges_ExpiredToken_ThrowsGone() {
+        OffsetDateTime longAgo = OffsetDateTime.now().minusDays(31);
+        String expired = SyncToken.initial(longAgo, longAgo).finishSession().encode();
+
+        assertThrows(GoneException.class, () -> taskSyncService.getChanges(expired, null));
+    }
+
+    @Test
+    @DisplayName("Некорректный токен и limit дают 400")
+    void getChanges_InvalidInput_ThrowsBadRequest() {
+        assertThrows(BadRequestException.class, () -> taskSyncService.getChanges("not-a-token", null));
+        assertThrows(BadRequestException.class, () -> taskSyncService.getChanges(null, 0));
+        assertThrows(BadRequestException.class,
+                () -> taskSyncService.getChanges(null, TaskService.MAX_PAGE_SIZE + 1));
+    }
+}
@@ -0,0 +1,97 @@
+package ru.hits.todobackend.servicesTests;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+import ru.hits.todobackend.entities.enum_entities.Priority;
+import ru.hits.todobackend.exception.BadRequestException;
+import ru.hits.todobackend.services.TitleMacroParser;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TitleMacroParserTests {
+
+    @Test
+    @DisplayName("Заголовок без макросов возвращается как есть, без обрезки")
+    void parse_NoMacros_ReturnsTitleUnchanged() {
+        String title = "  Buy milk  ";
+
+        TitleMacroParser.Result result = TitleMacroParser.parse(title);
+
+        assertSame(title, result.getCleanedTitle());
+        assertNull(result.getMacroPriority());
+        assertNull(result.getMacroDeadline());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "!1 Task|Task|CRITICAL",
+            "!2 Task|Task|HIGH",
+            "!3 Task|Task|MEDIUM",
+            "!4 Task|Task|LOW",
+            "Task !2 title|Task  title|HIGH",
+            "abc!4def|abcdef|LOW",
+            "!1 !3 Task|!3 Task|CRITICAL",
+            "!5 Task|!5 Task|"
+    })
+    @DisplayName("Вырезается первое вхождение макроса приоритета")
+    void parse_PriorityMacro(String title, String expectedTitle, Priority expectedPriority) {
+        TitleMacroParser.Result result = TitleMacroParser.parse(title);
+
+        assertEquals(expectedTitle, result.getCleanedTitle());
+        assertEquals(expectedPriority, result.getMacroPriority());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+            "!before 01.12.2030 Finish this|Finish this|2030-12-01",
+            "!before 01-12-2030 Finish this|Finish this|2030-12-01",
+            "Task !before 01.12.2030 is due|Task  is due|2030-12-01",
+            "'!before \t 15.06.2031 Tabs'|Tabs|2031-06-15",
+            "!before 31.04.2030 Clamped|Clamped|2030-04-30",
+            "!before 29.02.2028 Leap|Leap|2028-02-29",
+            "!2 !before 01.12.2030 Combo title|Combo title|2030-12-01",
+            "!!1before 01.01.2030 Joined|Joined|2030-01-01",
+            "!before !3 01.01.2030 Split|Split|2030-01-01"
+    })
+    @DisplayName("Вырезается макрос дедлайна, дата разбирается как DD.MM.YYYY")
+    void parse_DeadlineMacro(String title, String expectedTitle, LocalDate expectedDate) {
+        TitleMacroParser.Result result = TitleMacroParser.parse(title);
+
+        assertEquals(expectedTitle, result.getCleanedTitle());
+        assertEquals(expectedDate.atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime(), result.getMacroDeadline());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "!before01.12.2030 No space",
+            "!before 1.12.2030 Short day",
+            "!before 01/12/2030 Slashes",
+            "!Before 01.12.2030 Capital"
+    })
+    @DisplayName("Строки, похожие на макрос дедлайна, но не совпадающие с ним, не меняются")
+    void parse_NotADeadlineMacro(String title) {
+        TitleMacroParser.Result result = TitleMacroParser.parse(title);
+
+        assertEquals(title, result.getCleanedTitle());
+        assertNull(result.getMacroDeadline());
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "!before 99.99.9999 Invalid",
+            "!before 32.12.2025 Invalid day",
+            "!before 00.12.2025 Zero day",
+            "!before 31.13.2025 Invalid month",
+            "!before 01.01.0000 Zero year"
+    })
+    @DisplayName("Некорректная дата в макросе — BadRequestException")
+    void parse_InvalidDate_Throws(String title) {
+        assertThrows(BadRequestException.class, () -> TitleMacroParser.parse(title));
+    }
+}
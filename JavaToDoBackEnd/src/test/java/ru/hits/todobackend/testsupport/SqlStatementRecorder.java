@@ -0,0 +1,150 @@
+package ru.hits.todobackend.testsupport;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Счётчик SQL для тестов: Hibernate пропускает через него каждый стейтмент, который отправляет в JDBC
+ * (подключается в application-test.properties через {@code hibernate.session_factory.statement_inspector}).
+ * <p>
+ * Тест открывает {@link Recording} и получает ровно те стейтменты, что выполнились в его потоке
+ * или в потоке, обслуживающем HTTP-запрос, — фоновые {@code @Scheduled}-задачи в бюджет не попадают.
+ * Отдельно все стейтменты HTTP-запросов за прогон копятся по эндпоинтам и при выходе из JVM
+ * пишутся отчётом в {@code target/sql-statement-report.txt} (путь — свойство {@code sql.report.file}).
+ */
+public class SqlStatementRecorder implements StatementInspector {
+
+    private static final String REQUEST_STATEMENTS = SqlStatementRecorder.class.getName() + ".statements";
+    private static final Set<Recording> RECORDINGS = ConcurrentHashMap.newKeySet();
+    private static final Map<String, Queue<List<String>>> ENDPOINTS = new ConcurrentSkipListMap<>();
+    private static final AtomicBoolean REPORT_SCHEDULED = new AtomicBoolean();
+
+    @Override
+    public String inspect(String sql) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        Thread thread = Thread.currentThread();
+        for (Recording recording : RECORDINGS) {
+            if (request != null || recording.thread == thread) {
+                recording.statements.add(sql);
+            }
+        }
+        if (request != null) {
+            statementsOf(request).add(sql);
+        }
+        return sql;
+    }
+
+    /**
+     * Начинает запись стейтментов текущего потока и HTTP-запросов; закрывать через try-with-resources.
+     */
+    public static Recording start() {
+        Recording recording = new Recording(Thread.currentThread());
+        RECORDINGS.add(recording);
+        return recording;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> statementsOf(RequestAttributes request) {
+        Object current = request.getAttribute(REQUEST_STATEMENTS, RequestAttributes.SCOPE_REQUEST);
+        if (current != null) {
+            return (List<String>) current;
+        }
+        List<String> statements = Collections.synchronizedList(new ArrayList<>());
+        request.setAttribute(REQUEST_STATEMENTS, statements, RequestAttributes.SCOPE_REQUEST);
+        ENDPOINTS.computeIfAbsent(endpoint(request), key -> new ConcurrentLinkedQueue<>()).add(statements);
+        if (REPORT_SCHEDULED.compareAndSet(false, true)) {
+            Runtime.getRuntime().addShutdownHook(new Thread(SqlStatementRecorder::writeReport));
+        }
+        return statements;
+    }
+
+    private static String endpoint(RequestAttributes request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (request instanceof ServletRequestAttributes servlet) {
+            return servlet.getRequest().getMethod() + " "
+                    + (pattern != null ? pattern : servlet.getRequest().getRequestURI());
+        }
+        return String.valueOf(pattern);
+    }
+
+    /**
+     * Эндпоинт, число запросов с обращением к БД, минимум/среднее/максимум стейтментов на запрос
+     * и стейтменты самого тяжёлого запроса — по ним видно, откуда взялся максимум.
+     */
+    private static String report() {
+        StringBuilder out = new StringBuilder(String.format("%-45s %8s %5s %7s %5s%n",
+                "endpoint", "requests", "min", "avg", "max"));
+        ENDPOINTS.forEach((endpoint, requests) -> {
+            List<List<String>> all = new ArrayList<>(requests);
+            List<String> heaviest = all.stream().max((a, b) -> Integer.compare(a.size(), b.size())).orElseThrow();
+            out.append(String.format("%-45s %8d %5d %7.1f %5d%n", endpoint, all.size(),
+                    all.stream().mapToInt(List::size).min().orElse(0),
+                    all.stream().mapToInt(List::size).average().orElse(0),
+                    heaviest.size()));
+            synchronized (heaviest) {
+                heaviest.forEach(sql -> out.append("    ").append(sql).append('\n'));
+            }
+        });
+        return out.toString();
+    }
+
+    private static void writeReport() {
+        Path file = Path.of(System.getProperty("sql.report.file", "target/sql-statement-report.txt"));
+        try {
+            if (file.getParent() != null) {
+                Files.createDirectories(file.getParent());
+            }
+            Files.writeString(file, report());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public static final class Recording implements AutoCloseable {
+
+        private final Thread thread;
+        private final Queue<String> statements = new ConcurrentLinkedQueue<>();
+
+        private Recording(Thread thread) {
+            this.thread = thread;
+        }
+
+        public List<String> statements() {
+            return List.copyOf(statements);
+        }
+
+        public int count() {
+            return statements.size();
+        }
+
+        /**
+         * Сообщение для assert'а: сколько стейтментов и какие именно.
+         */
+        public String describe() {
+            return count() + " statement(s):\n  " + String.join("\n  ", statements);
+        }
+
+        @Override
+        public void close() {
+            RECORDINGS.remove(this);
+        }
+    }
+}